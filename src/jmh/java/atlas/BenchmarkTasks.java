@@ -0,0 +1,55 @@
+package atlas;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds the same task list for every benchmark run, so results from
+ * different runs can be compared.
+ */
+final class BenchmarkTasks {
+    static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    private static final long SEED = 42;
+    private static final int DATE_SPREAD_DAYS = 365;
+    private static final String[] WORDS = {
+        "read", "book", "write", "report", "call", "mum", "buy", "milk", "plan", "trip",
+        "review", "code", "email", "team", "fix", "bug", "draft", "slides", "pay", "rent",
+    };
+
+    private BenchmarkTasks() {
+    }
+
+    /**
+     * Returns {@code count} distinct tasks: mostly todos, with deadlines and
+     * events spread over a year, and about a third of them done.
+     */
+    static List<Task> generate(int count) {
+        Random random = new Random(SEED);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // The number keeps every description distinct, as the list refuses duplicates.
+            String description = WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            LocalDate date = START.plusDays(random.nextInt(DATE_SPREAD_DAYS));
+            Task task;
+            switch (i % 4) {
+            case 0:
+                task = new Deadline(description, date);
+                break;
+            case 1:
+                task = new Event(description, date + " 09:00", "10:00");
+                break;
+            default:
+                task = new Todo(description);
+            }
+            if (random.nextInt(3) == 0) {
+                task.mark();
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,56 @@
+package atlas;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Time to turn one line of input into a command, for every command word.
+ * Only the parse stage runs, so the task list and save file are untouched
+ * and each line can be parsed over and over.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParserBenchmark {
+    @Param({
+        "list",
+        "list --page 3 --size 20",
+        "mark 12",
+        "unmark 12",
+        "mark 1,4,9-20",
+        "delete 7",
+        "todo read book",
+        "deadline return book /by 2025-10-15",
+        "event project meeting /from 2025-10-15 14:00 /to 16:00",
+        "find book",
+        "due 2025-10-15",
+        "due-between 2025-10-01 2025-10-31",
+        "overdue",
+        "on 2025-10-15",
+        "begin",
+        "commit",
+        "rollback",
+        "bye",
+    })
+    public String line;
+
+    private Dispatcher dispatcher;
+
+    @Setup
+    public void setUp() {
+        dispatcher = new Dispatcher(Parser.defaultRegistry());
+    }
+
+    @Benchmark
+    public Command parse() throws AtlasException {
+        return dispatcher.parse(CommandLine.parse(line));
+    }
+}
@@ -0,0 +1,52 @@
+package atlas;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Encoding single tasks for the save file, and building deadlines from
+ * typed and already parsed dates. Inputs are kept in non-final fields so
+ * the compiler cannot fold them into constants.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskBenchmark {
+    private Task todo = new Todo("read book");
+    private Task deadline = new Deadline("return book", "2025-10-15");
+    private Task event = new Event("project meeting", "2025-10-15 14:00", "16:00");
+    private String byText = "2025-10-15";
+    private LocalDate byDate = LocalDate.of(2025, 10, 15);
+
+    @Benchmark
+    public String todoToSave() {
+        return todo.toSave();
+    }
+
+    @Benchmark
+    public String deadlineToSave() {
+        return deadline.toSave();
+    }
+
+    @Benchmark
+    public String eventToSave() {
+        return event.toSave();
+    }
+
+    @Benchmark
+    public Deadline deadlineFromText() {
+        return new Deadline("return book", byText);
+    }
+
+    @Benchmark
+    public Deadline deadlineFromDate() {
+        return new Deadline("return book", byDate);
+    }
+}
@@ -0,0 +1,83 @@
+package atlas;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Duplicate checks, searches and list formatting on lists of growing size.
+ * The indexes are built during setup, so these measure steady-state
+ * lookups rather than the first one after loading. Each runs on a list of
+ * task objects and on a {@link CompactTaskList}, which rebuilds tasks as
+ * they are read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskListBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"list", "compact"})
+    public String store;
+
+    private TaskList tasks;
+    private Task present;
+    private Task absent;
+
+    @Setup
+    public void setUp() {
+        List<Task> generated = BenchmarkTasks.generate(size);
+        if (store.equals("compact")) {
+            CompactTaskList compact = new CompactTaskList();
+            compact.addAll(generated);
+            tasks = TaskList.backedBy(compact);
+        } else {
+            tasks = new TaskList(generated);
+        }
+        // A fresh copy of a todo from mid-list, so the check cannot succeed
+        // just by finding the same object. Every position 2 (mod 4) holds a todo.
+        present = new Todo(generated.get(size / 2 + 2).description);
+        absent = new Todo("not in the list");
+        tasks.contains(absent);
+    }
+
+    @Benchmark
+    public boolean containsPresent() {
+        return tasks.contains(present);
+    }
+
+    @Benchmark
+    public boolean containsAbsent() {
+        return tasks.contains(absent);
+    }
+
+    /**
+     * A whole word, answered from the keyword index.
+     */
+    @Benchmark
+    public List<Task> findWord() {
+        return tasks.find("book");
+    }
+
+    /**
+     * A phrase with a space, which falls back to scanning every description.
+     */
+    @Benchmark
+    public List<Task> findPhrase() {
+        return tasks.find("read book");
+    }
+
+    @Benchmark
+    public String formatList() {
+        return tasks.formatList();
+    }
+}
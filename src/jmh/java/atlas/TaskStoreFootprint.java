@@ -0,0 +1,47 @@
+package atlas;
+
+import java.util.List;
+
+/**
+ * Measures the heap taken per task by a list of task objects and by a
+ * {@link CompactTaskList} holding the same {@link BenchmarkTasks}.
+ * <p>
+ * Heap use is read after a few garbage collections, so run it with a fixed
+ * heap (e.g. {@code -Xms4g -Xmx4g}) and nothing else going on.
+ * <p>
+ * Usage: {@code TaskStoreFootprint [--tasks 1000000]}
+ */
+public class TaskStoreFootprint {
+    private static final int GC_ROUNDS = 5;
+    private static final String ROW_FORMAT = "%-8s %12d bytes %8.1f bytes/task%n";
+
+    public static void main(String[] args) {
+        int count = Integer.parseInt(WorkloadGenerator.parseOptions(args).getOrDefault("tasks", "1000000"));
+
+        long empty = usedHeap();
+        List<Task> objects = BenchmarkTasks.generate(count);
+        long objectBytes = usedHeap() - empty;
+
+        CompactTaskList compact = new CompactTaskList();
+        compact.addAll(objects);
+        objects = null; // only the compact copy is left to measure
+        long compactBytes = usedHeap() - empty;
+        assert compact.size() == count : "compact list lost tasks";
+
+        System.out.printf("%d tasks%n", count);
+        System.out.printf(ROW_FORMAT, "list", objectBytes, (double) objectBytes / count);
+        System.out.printf(ROW_FORMAT, "compact", compactBytes, (double) compactBytes / count);
+        System.out.printf("The compact list takes %.0f%% of the heap of the list.%n",
+                100.0 * compactBytes / objectBytes);
+        // Keeps the list reachable until it has been measured.
+        System.out.println("Last task: " + compact.get(count - 1));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,199 @@
+package atlas;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Writes a file of commands that looks like a real user's session, for
+ * {@link WorkloadReplay} to run. The same options and seed always give
+ * the same file.
+ * <p>
+ * The file starts with {@code --tasks} adds inside one batch, so the list
+ * has something in it, followed by {@code --ops} commands drawn from the
+ * mix. Descriptions are mostly a few words long with an occasional long
+ * one, and favour common words, so searches find some tasks often and
+ * others rarely. Dates are spread over {@code --days} days from
+ * {@code --start}. Task numbers always fall inside the list.
+ * <p>
+ * Usage: {@code WorkloadGenerator --out <file> [--ops 10000] [--tasks 1000]
+ * [--seed 1] [--start 2025-01-01] [--days 90] [--mix todo=20,mark=20,...]}
+ */
+public class WorkloadGenerator {
+    private static final String DEFAULT_MIX =
+            "todo=20,deadline=10,event=5,mark=20,unmark=5,delete=10,find=20,list=5,due=3,overdue=2";
+    private static final String USAGE = "Usage: WorkloadGenerator --out <file> [--ops n] [--tasks n] [--seed n]"
+            + " [--start yyyy-mm-dd] [--days n] [--mix word=weight,...]";
+
+    // Each further word is added with these odds, so descriptions average four words.
+    private static final double LONGER_ODDS = 0.75;
+    private static final int MAX_WORDS = 40;
+    private static final int MAX_REDRAWS = 5;
+    private static final String[] WORDS = {
+        "read", "book", "email", "team", "call", "mum", "buy", "milk", "review", "code",
+        "write", "report", "plan", "trip", "fix", "bug", "draft", "slides", "pay", "rent",
+        "clean", "room", "tickets", "flight", "meet", "client", "submit", "form", "water", "plants",
+        "update", "resume", "prepare", "talk", "renew", "passport", "backup", "laptop", "visit", "dentist",
+    };
+
+    private final Random random;
+    private final LocalDate start;
+    private final int days;
+    private final String[] commands; // command word for each unit of weight
+    private final Set<String> descriptions = new HashSet<>();
+    private int size; // tasks in the list after the commands written so far
+
+    WorkloadGenerator(long seed, LocalDate start, int days, Map<String, Integer> mix) {
+        assert days > 0 : "days must be positive";
+        this.random = new Random(seed);
+        this.start = start;
+        this.days = days;
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        assert total > 0 : "mix must not be empty";
+        this.commands = new String[total];
+        int i = 0;
+        for (Map.Entry<String, Integer> e : mix.entrySet()) {
+            for (int n = 0; n < e.getValue(); n++) {
+                commands[i++] = e.getKey();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        if (!options.containsKey("out")) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        WorkloadGenerator generator = new WorkloadGenerator(
+                Long.parseLong(options.getOrDefault("seed", "1")),
+                LocalDate.parse(options.getOrDefault("start", "2025-01-01")),
+                Integer.parseInt(options.getOrDefault("days", "90")),
+                parseMix(options.getOrDefault("mix", DEFAULT_MIX)));
+        int tasks = Integer.parseInt(options.getOrDefault("tasks", "1000"));
+        int ops = Integer.parseInt(options.getOrDefault("ops", "10000"));
+        Path out = Paths.get(options.get("out"));
+        try (PrintWriter w = new PrintWriter(new BufferedWriter(Files.newBufferedWriter(out)))) {
+            generator.write(w, tasks, ops);
+        }
+        System.out.printf("Wrote %d setup and %d workload commands to %s%n", tasks + 2, ops, out);
+        System.out.printf("Replay with --warmup %d to leave the setup out of the results.%n", tasks + 2);
+    }
+
+    /**
+     * Writes the setup batch and then the workload, one command per line.
+     */
+    void write(PrintWriter w, int tasks, int ops) {
+        w.println("begin");
+        for (int i = 0; i < tasks; i++) {
+            w.println(next(random.nextInt(3) == 0 ? "deadline" : "todo"));
+        }
+        w.println("commit");
+        for (int i = 0; i < ops; i++) {
+            w.println(next(commands[random.nextInt(commands.length)]));
+        }
+    }
+
+    /**
+     * Returns a command line for the given command word, switching to an
+     * add when the list is too empty for the command to make sense.
+     */
+    String next(String word) {
+        boolean needsTask = word.equals("mark") || word.equals("unmark") || word.equals("delete");
+        if (needsTask && size == 0) {
+            word = "todo";
+        }
+        switch (word) {
+        case "todo":
+            size++;
+            return "todo " + description();
+        case "deadline":
+            size++;
+            return "deadline " + description() + " /by " + date();
+        case "event":
+            size++;
+            int hour = 8 + random.nextInt(10);
+            return String.format("event %s /from %s %02d:00 /to %02d:00",
+                    description(), date(), hour, hour + 1 + random.nextInt(3));
+        case "mark":
+        case "unmark":
+            return word + " " + taskNumber();
+        case "delete":
+            String line = "delete " + taskNumber();
+            size--;
+            return line;
+        case "find":
+            return "find " + word();
+        case "due":
+        case "on":
+            return word + " " + date();
+        default:
+            // Commands without arguments, such as list and overdue.
+            return word;
+        }
+    }
+
+    private int taskNumber() {
+        return 1 + random.nextInt(size);
+    }
+
+    private LocalDate date() {
+        return start.plusDays(random.nextInt(days));
+    }
+
+    // Squaring a uniform draw favours the words at the front of the list.
+    private String word() {
+        double r = random.nextDouble();
+        return WORDS[(int) (r * r * WORDS.length)];
+    }
+
+    // Redraws a few times to avoid duplicates, which the list would refuse.
+    private String description() {
+        String d = null;
+        for (int attempt = 0; attempt <= MAX_REDRAWS; attempt++) {
+            StringBuilder sb = new StringBuilder(word());
+            for (int n = 1; n < MAX_WORDS && random.nextDouble() < LONGER_ODDS; n++) {
+                sb.append(' ').append(word());
+            }
+            d = sb.toString();
+            if (descriptions.add(d)) {
+                return d;
+            }
+        }
+        d = d + " " + descriptions.size();
+        descriptions.add(d);
+        return d;
+    }
+
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected an option but got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected word=weight but got: " + part);
+            }
+            mix.put(kv[0].trim(), Integer.parseInt(kv[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,164 @@
+package atlas;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Runs a file of commands, such as one from {@link WorkloadGenerator},
+ * through {@link Atlas#getResponse(String)} without a GUI, and reports
+ * throughput and latency for each command word.
+ * <p>
+ * Each command is timed from input to reply, including the save that
+ * follows a change, so the save settings given as system properties (see
+ * {@link Config}) apply. Tasks are kept in a fresh save file in a
+ * temporary directory, which is removed afterwards. The first
+ * {@code --warmup} lines run without being timed.
+ * <p>
+ * Usage: {@code WorkloadReplay --in <file> [--warmup n]}
+ */
+public class WorkloadReplay {
+    private static final String USAGE = "Usage: WorkloadReplay --in <file> [--warmup n]";
+    private static final String ERROR_PREFIX = "Oops - ";
+    private static final String ALL = "all";
+    private static final String HEADER_FORMAT = "%-12s %9s %7s %11s %10s %10s %10s%n";
+    private static final String ROW_FORMAT = "%-12s %9d %7d %11.0f %10.1f %10.1f %10.1f%n";
+
+    /**
+     * Latencies and errors seen for one command word.
+     */
+    static final class Stats {
+        private long[] nanos = new long[64];
+        private int count;
+        private int errors;
+
+        void add(long elapsed, boolean isError) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = elapsed;
+            if (isError) {
+                errors++;
+            }
+        }
+
+        void addAll(Stats other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.nanos[i], false);
+            }
+            errors += other.errors;
+        }
+
+        int count() {
+            return count;
+        }
+
+        int errors() {
+            return errors;
+        }
+
+        /**
+         * Returns commands per second of time spent running this command.
+         */
+        double opsPerSecond() {
+            long total = 0;
+            for (int i = 0; i < count; i++) {
+                total += nanos[i];
+            }
+            return total == 0 ? 0 : count * 1e9 / total;
+        }
+
+        /**
+         * Returns the latency in microseconds that the given fraction of
+         * commands finished within (nearest rank).
+         */
+        double percentileMicros(double fraction) {
+            assert fraction > 0 && fraction <= 1 : "fraction must be in (0, 1]";
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(fraction * count);
+            return sorted[Math.max(rank, 1) - 1] / 1_000.0;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = WorkloadGenerator.parseOptions(args);
+        if (!options.containsKey("in")) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        List<String> lines = Files.readAllLines(Paths.get(options.get("in")));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "0"));
+
+        Path dir = Files.createTempDirectory("atlas-replay");
+        PrintStream console = System.out;
+        Map<String, Stats> stats;
+        long wall;
+        try {
+            // Atlas prints every reply to the console it finds when created.
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            Atlas atlas = new Atlas(dir.resolve("atlas.txt").toString());
+            int timedFrom = Math.min(warmup, lines.size());
+            replay(atlas, lines.subList(0, timedFrom));
+            long start = System.nanoTime();
+            stats = replay(atlas, lines.subList(timedFrom, lines.size()));
+            wall = System.nanoTime() - start;
+            atlas.getResponse("bye"); // flushes any writes still queued
+        } finally {
+            System.setOut(console);
+            deleteAll(dir);
+        }
+        report(console, stats, wall);
+    }
+
+    /**
+     * Runs every line through Atlas and returns the timings per command word.
+     */
+    static Map<String, Stats> replay(Atlas atlas, List<String> lines) {
+        Map<String, Stats> stats = new TreeMap<>();
+        for (String line : lines) {
+            long start = System.nanoTime();
+            String reply = atlas.getResponse(line);
+            long elapsed = System.nanoTime() - start;
+            CommandLine parsed = CommandLine.parse(line);
+            if (parsed.isEmpty()) {
+                continue;
+            }
+            stats.computeIfAbsent(parsed.command(), w -> new Stats()).add(elapsed, reply.startsWith(ERROR_PREFIX));
+        }
+        return stats;
+    }
+
+    private static void report(PrintStream out, Map<String, Stats> stats, long wallNanos) {
+        Stats all = new Stats();
+        stats.values().forEach(all::addAll);
+        out.printf("Replayed %d commands in %.2f s: %.0f ops/sec overall%n",
+                all.count(), wallNanos / 1e9, wallNanos == 0 ? 0 : all.count() * 1e9 / wallNanos);
+        out.printf(HEADER_FORMAT, "command", "count", "errors", "ops/sec", "p50 us", "p99 us", "p999 us");
+        stats.forEach((word, s) -> row(out, word, s));
+        row(out, ALL, all);
+    }
+
+    private static void row(PrintStream out, String word, Stats s) {
+        out.printf(ROW_FORMAT, word, s.count(), s.errors(), s.opsPerSecond(),
+                s.percentileMicros(0.50), s.percentileMicros(0.99), s.percentileMicros(0.999));
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
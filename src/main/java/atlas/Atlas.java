@@ -1,5 +1,9 @@
 package atlas;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 /**
@@ -8,22 +12,58 @@ import java.util.Scanner;
  * the application's lifecycle.
  */
 public class Atlas {
+    private static final String SKIPPED_LINES_NOTE = "Note: skipped %d unreadable line(s) in the save file.";
+    private static final String SAVE_FILE = "data/duke.txt";
+
     private final Ui ui = new Ui();
-    private final Storage storage = new Storage("data/duke.txt");
+    private final Storage storage;
     private TaskList tasks;
     private String commandType;
 
     /**
      * Constructs an {@code Atlas} instance.
-     * Initializes the UI and storage, then attempts to load previously saved
-     * tasks. If loading fails, the application starts with an empty task list.
+     * Initializes the UI and storage (applying the configured durability, save
+     * format, journal and write-behind modes), then attempts to load previously saved
+     * tasks, on demand if lazy loading is on and into a compact store if that
+     * is on. If loading fails, the application
+     * starts with an empty task list.
      */
     public Atlas() {
+        this(SAVE_FILE);
+    }
+
+    /**
+     * Constructs an {@code Atlas} instance that keeps its tasks in the given
+     * file instead of the default one, such as when replaying a workload.
+     *
+     * @param saveFile path to the save file
+     */
+    Atlas(String saveFile) {
+        storage = new Storage(saveFile);
+        storage.setDurability(Config.durability());
+        storage.setFormat(Config.saveFormat());
+        storage.setMetrics(Metrics.global());
+        if (Config.isJournalEnabled()) {
+            storage.enableJournal(Config.journalCompactionRatio());
+        }
         try {
-            tasks = new TaskList(storage.load());
+            if (Config.isLazyLoadEnabled()) {
+                tasks = TaskList.backedBy(storage.loadLazily(Config.lazyCachePages()));
+            } else if (Config.isCompactEnabled()) {
+                tasks = TaskList.backedBy(storage.loadCompact());
+            } else {
+                tasks = new TaskList(storage.load());
+            }
+            if (storage.getSkippedLineCount() > 0) {
+                ui.show(String.format(SKIPPED_LINES_NOTE, storage.getSkippedLineCount()));
+            }
         } catch (Exception e) {
             ui.show("Note: couldn't load saved tasks. Starting fresh.");
-            tasks = new TaskList();
+            tasks = Config.isCompactEnabled() ? TaskList.backedBy(new CompactTaskList()) : new TaskList();
+        }
+        if (Config.isWriteBehindEnabled()) {
+            storage.startWriteBehind(tasks.snapshot(), Config.writeBehindWindowMillis(),
+                    Config.writeBehindQueueCapacity());
         }
     }
 
@@ -36,6 +76,41 @@ public class Atlas {
         System.out.println("Welcome to the Atlas");
     }
 
+    /**
+     * Runs every command in the given file as one batch and saves the result
+     * once at the end. Messages from the individual commands are not printed.
+     * If any command fails, its error is shown and nothing from the file is kept.
+     * A {@code bye} line ends the batch early.
+     *
+     * @param file file with one command per line
+     * @return {@code true} if every command succeeded
+     * @throws IOException if the file cannot be read
+     */
+    public boolean runBatch(Path file) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file)) {
+            Parser.parse(BEGIN_CMD, tasks, ui, storage);
+            ui.setQuiet(true);
+            boolean isDone = false;
+            String line;
+            while (!isDone && (line = in.readLine()) != null) {
+                isDone = Parser.parse(line, tasks, ui, storage);
+            }
+            ui.setQuiet(false);
+            if (!isDone) {
+                Parser.parse(COMMIT_CMD, tasks, ui, storage);
+            } else {
+                ui.show(ui.getLast());
+            }
+            return true;
+        } catch (AtlasException e) {
+            ui.setQuiet(false);
+            ui.showError(e.getMessage());
+            return false;
+        } finally {
+            storage.close();
+        }
+    }
+
     // Private helper: runs the input loop and delegates to Parser.
     private void run() {
         ui.showGreeting();
@@ -66,19 +141,23 @@ public class Atlas {
     private static final String MARK_CMD = "mark";
     private static final String UNMARK_CMD = "unmark";
     private static final String DELETE_CMD = "delete";
+    private static final String BEGIN_CMD = "begin";
+    private static final String COMMIT_CMD = "commit";
 
     public String getResponse(String input) {
         resetCommandType();
 
-        if (input == null || input.trim().isEmpty()) {
+        if (input == null) {
             return "";
         }
-
-        String trimmed = input.trim();
-        inferCommandType(trimmed);
+        CommandLine line = CommandLine.parse(input);
+        if (line.isEmpty()) {
+            return "";
+        }
+        inferCommandType(line);
 
         try {
-            boolean quit = Parser.parse(trimmed, tasks, ui, storage);
+            boolean quit = Parser.parse(line, tasks, ui, storage);
             if (quit) {
                 this.commandType = null; // neutral styling on exit
             }
@@ -93,11 +172,8 @@ public class Atlas {
         this.commandType = null;
     }
     
-    private void inferCommandType(String input) {
-        String[] parts = input.split("\\s+", 2);
-        String cmd = parts[0];
-        
-        this.commandType = switch (cmd) {
+    private void inferCommandType(CommandLine line) {
+        this.commandType = switch (line.command()) {
             case TODO_CMD, DEADLINE_CMD, EVENT_CMD -> ADD_COMMAND;
             case MARK_CMD, UNMARK_CMD -> CHANGE_MARK_COMMAND;
             case DELETE_CMD -> DELETE_COMMAND;
@@ -0,0 +1,290 @@
+package atlas;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Reads and writes the binary save format.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * header   magic "ATLB", u16 version, u16 flags, i32 task count, i32 string count,
+ *          i64 string index offset, i64 record index offset
+ * records  per task: u16 length, then type byte, done byte, i32 description id,
+ *          and i32 epoch day (deadline) or i32 from id, i32 to id (event)
+ * strings  per distinct string: i32 byte length, UTF-8 bytes
+ * indexes  i32 offset of every string, then i32 offset of every record
+ * </pre>
+ * Repeated text (such as a common event time) is stored once in the string
+ * table and decoded once on load. Dates are stored as epoch days, so loading
+ * a deadline needs no date parsing. The two index tables let a reader jump to
+ * any record or string without reading what comes before it. Files are
+ * limited to 2 GB, the most that can be mapped in one piece.
+ */
+class BinaryFormat {
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    private static final byte[] MAGIC = {'A', 'T', 'L', 'B'};
+    private static final byte TODO = 'T';
+    private static final byte DEADLINE = 'D';
+    private static final byte EVENT = 'E';
+
+    private BinaryFormat() {
+    }
+
+    /**
+     * Returns whether the file starts with the binary format's magic bytes.
+     */
+    static boolean isBinary(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < MAGIC.length) {
+            return false;
+        }
+        byte[] head = new byte[MAGIC.length];
+        try (InputStream in = Files.newInputStream(file)) {
+            if (in.readNBytes(head, 0, head.length) < head.length) {
+                return false;
+            }
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (head[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes all tasks to the channel, which must be empty and positioned at 0.
+     */
+    static void write(List<Task> tasks, FileChannel channel) throws IOException {
+        channel.position(HEADER_SIZE);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        HashMap<String, Integer> ids = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int[] recordOffsets = new int[tasks.size()];
+        long pos = HEADER_SIZE;
+
+        for (int i = 0; i < tasks.size(); i++) {
+            Task t = tasks.get(i);
+            PagedTaskList.checkReadable(t, i);
+            recordOffsets[i] = checkedOffset(pos);
+            int length = 1 + 1 + 4;
+            if (t instanceof Deadline) {
+                length += 4;
+            } else if (t instanceof Event) {
+                length += 8;
+            }
+            out.writeShort(length);
+            out.writeByte(typeOf(t));
+            out.writeByte(t.isDone ? 1 : 0);
+            out.writeInt(intern(t.description, ids, strings));
+            if (t instanceof Deadline) {
+                out.writeInt((int) ((Deadline) t).getBy().toEpochDay());
+            } else if (t instanceof Event) {
+                out.writeInt(intern(((Event) t).from, ids, strings));
+                out.writeInt(intern(((Event) t).to, ids, strings));
+            }
+            pos += 2 + length;
+        }
+
+        int[] stringOffsets = new int[strings.size()];
+        for (int i = 0; i < strings.size(); i++) {
+            byte[] bytes = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            stringOffsets[i] = checkedOffset(pos);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            pos += 4 + bytes.length;
+        }
+
+        long stringIndex = pos;
+        for (int offset : stringOffsets) {
+            out.writeInt(offset);
+        }
+        long recordIndex = stringIndex + 4L * stringOffsets.length;
+        for (int offset : recordOffsets) {
+            out.writeInt(offset);
+        }
+        checkedOffset(recordIndex + 4L * recordOffsets.length);
+        out.flush();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(MAGIC)
+                .putShort((short) VERSION)
+                .putShort((short) 0)
+                .putInt(tasks.size())
+                .putInt(strings.size())
+                .putLong(stringIndex)
+                .putLong(recordIndex)
+                .flip();
+        while (header.hasRemaining()) {
+            channel.write(header, HEADER_SIZE - header.remaining());
+        }
+    }
+
+    /**
+     * Reads every task from a binary save file.
+     *
+     * @param file save file written by {@link #write(List, FileChannel)}
+     * @param out  list to append the tasks to
+     * @return number of records that could not be decoded and were skipped
+     * @throws IOException if the file cannot be read or its header is invalid
+     */
+    static int read(Path file, List<Task> out) throws IOException {
+        Reader reader = Reader.open(file, true);
+        int skipped = 0;
+        for (int i = 0; i < reader.size(); i++) {
+            Task t = reader.get(i);
+            if (t != null) {
+                out.add(t);
+            } else {
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+
+    private static int checkedOffset(long pos) throws IOException {
+        if (pos > Integer.MAX_VALUE) {
+            throw new IOException("Too many tasks for the binary save format");
+        }
+        return (int) pos;
+    }
+
+    private static byte typeOf(Task t) {
+        if (t instanceof Deadline) {
+            return DEADLINE;
+        }
+        return t instanceof Event ? EVENT : TODO;
+    }
+
+    private static int intern(String s, HashMap<String, Integer> ids, List<String> strings) {
+        Integer id = ids.get(s);
+        if (id == null) {
+            id = strings.size();
+            ids.put(s, id);
+            strings.add(s);
+        }
+        return id;
+    }
+
+    /**
+     * Random-access view of a binary save file, mapped into memory. Records
+     * and strings are decoded only when asked for; with string caching on,
+     * each distinct string is decoded at most once.
+     */
+    static class Reader {
+        private final ByteBuffer buffer;
+        private final int taskCount;
+        private final int stringCount;
+        private final long stringIndex;
+        private final long recordIndex;
+        private final String[] strings;
+
+        private Reader(ByteBuffer buffer, boolean isCachingStrings) throws IOException {
+            this.buffer = buffer;
+            if (buffer.limit() < HEADER_SIZE) {
+                throw new IOException("Binary save file is truncated");
+            }
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (buffer.get(i) != MAGIC[i]) {
+                    throw new IOException("Not a binary save file");
+                }
+            }
+            int version = Short.toUnsignedInt(buffer.getShort(4));
+            if (version != VERSION) {
+                throw new IOException("Unsupported save file version " + version);
+            }
+            this.taskCount = buffer.getInt(8);
+            this.stringCount = buffer.getInt(12);
+            this.stringIndex = buffer.getLong(16);
+            this.recordIndex = buffer.getLong(24);
+            if (taskCount < 0 || stringCount < 0
+                    || stringIndex + 4L * stringCount > buffer.limit()
+                    || recordIndex + 4L * taskCount > buffer.limit()) {
+                throw new IOException("Binary save file is truncated");
+            }
+            this.strings = isCachingStrings ? new String[stringCount] : null;
+        }
+
+        /**
+         * Maps the file and checks its header. Files beyond 2 GB are not supported.
+         * The mapping lasts until the reader is garbage collected, and on some
+         * systems the file cannot be replaced or deleted until then.
+         * Decoded strings are kept for reuse when {@code isCachingStrings} is set;
+         * otherwise every read decodes them afresh and nothing is retained.
+         */
+        static Reader open(Path file, boolean isCachingStrings) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    throw new IOException("Binary save file is too large to map");
+                }
+                return new Reader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), isCachingStrings);
+            }
+        }
+
+        int size() {
+            return taskCount;
+        }
+
+        /**
+         * Decodes the task at {@code idx}, or returns {@code null} if the record is invalid.
+         */
+        Task get(int idx) {
+            assert idx >= 0 && idx < taskCount : "record index out of range";
+            try {
+                int pos = buffer.getInt((int) (recordIndex + 4L * idx));
+                int length = Short.toUnsignedInt(buffer.getShort(pos));
+                int body = pos + 2;
+                byte type = buffer.get(body);
+                boolean done = buffer.get(body + 1) == 1;
+                String description = string(buffer.getInt(body + 2));
+
+                Task task;
+                if (type == TODO && length >= 6) {
+                    task = new Todo(description);
+                } else if (type == DEADLINE && length >= 10) {
+                    task = new Deadline(description, LocalDate.ofEpochDay(buffer.getInt(body + 6)));
+                } else if (type == EVENT && length >= 14) {
+                    task = new Event(description, string(buffer.getInt(body + 6)), string(buffer.getInt(body + 10)));
+                } else {
+                    return null;
+                }
+                if (done) {
+                    task.mark();
+                }
+                return task;
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        private String string(int id) {
+            String s = strings != null ? strings[id] : null;
+            if (s == null) {
+                int pos = buffer.getInt((int) (stringIndex + 4L * id));
+                int length = buffer.getInt(pos);
+                byte[] bytes = new byte[length];
+                buffer.get(pos + 4, bytes);
+                s = new String(bytes, StandardCharsets.UTF_8);
+                if (strings != null) {
+                    strings[id] = s;
+                }
+            }
+            return s;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package atlas;
+
+/**
+ * A parsed user command, ready to run.
+ * <p>
+ * Commands are immutable: everything that can be checked from the input
+ * alone has been checked when the command is built, and running one only
+ * changes the task list it is given. What to show the user and what to
+ * persist are handed back in a {@link CommandResult}, so the
+ * {@link Dispatcher} can render and save in separate steps.
+ */
+interface Command {
+
+    /**
+     * Applies the command to the task list.
+     *
+     * @param tasks   task list to operate on
+     * @param storage storage, for commands that control batches or saving directly
+     * @return what to show and what to persist
+     * @throws AtlasException if the command does not fit the current list,
+     *                        such as a task number that is out of range
+     */
+    CommandResult execute(TaskList tasks, Storage storage) throws AtlasException;
+
+    /**
+     * Returns whether the command adds, removes or changes tasks. When such
+     * a command fails inside a batch, the batch is rolled back.
+     *
+     * @return {@code true} for commands that change the task list
+     */
+    default boolean changesTasks() {
+        return false;
+    }
+}
@@ -0,0 +1,50 @@
+package atlas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering one command, from parsing to the save
+ * that follows it, so a pause seen in a recording can be tied to the
+ * command that was running. Costs nothing unless a recording that
+ * includes it is running.
+ */
+@Name("atlas.Command")
+@Label("Command")
+@Category("Atlas")
+@Description("A command run through the dispatcher, including its save")
+class CommandEvent extends Event {
+    static final String OK = "ok";
+    static final String FAILED = "failed";
+
+    @Label("Command")
+    @Description("Command word, or (unknown) for words that are not commands")
+    String command;
+
+    @Label("Tasks")
+    @Description("Number of tasks in the list after the command")
+    int taskCount;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Ends the event and commits it if it is being recorded.
+     *
+     * @param name     command word
+     * @param tasks    task list the command ran against
+     * @param isFailed whether the command reported an error
+     */
+    void finish(String name, TaskList tasks, boolean isFailed) {
+        end();
+        if (shouldCommit()) {
+            command = name;
+            taskCount = tasks.size();
+            outcome = isFailed ? FAILED : OK;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package atlas;
+
+/**
+ * One line of user input split into a command word and its argument.
+ * <p>
+ * The line is scanned once. That scan finds the command, the argument and
+ * the first {@code /by}, {@code /from} and {@code /to} markers in the
+ * argument, and records them as offsets into the input. Strings are only
+ * created when a part is asked for, already trimmed, so there are no
+ * intermediate arrays or substrings.
+ * <p>
+ * The split matches {@code input.trim().split("\\s+", 2)}: the command ends
+ * at the first whitespace, and the argument is the rest of the line, trimmed.
+ */
+final class CommandLine {
+    static final String BY_MARKER = " /by ";
+    static final String FROM_MARKER = " /from ";
+    static final String TO_MARKER = " /to ";
+
+    private static final int NOT_FOUND = -1;
+
+    private final String input;
+    private final int commandStart;
+    private final int commandEnd;
+    private final int argumentStart;
+    private final int end;
+    private int byAt = NOT_FOUND;
+    private int fromAt = NOT_FOUND;
+    private int toAt = NOT_FOUND;
+    private String command; // created on first use
+
+    private CommandLine(String input) {
+        this.input = input;
+        int start = 0;
+        int stop = input.length();
+        while (start < stop && input.charAt(start) <= ' ') {
+            start++;
+        }
+        while (stop > start && input.charAt(stop - 1) <= ' ') {
+            stop--;
+        }
+        int i = start;
+        while (i < stop && !isSpace(input.charAt(i))) {
+            i++;
+        }
+        this.commandStart = start;
+        this.commandEnd = i;
+        while (i < stop && input.charAt(i) <= ' ') {
+            i++;
+        }
+        this.argumentStart = i;
+        this.end = stop;
+        findMarkers();
+    }
+
+    /**
+     * Splits a line of input.
+     *
+     * @param input raw user input
+     * @return the split line
+     */
+    static CommandLine parse(String input) {
+        assert input != null : "input must not be null";
+        return new CommandLine(input);
+    }
+
+    // Records the first occurrence of each marker inside the argument. Every
+    // marker starts with " /", so only those positions need a closer look.
+    private void findMarkers() {
+        for (int i = argumentStart; i + 1 < end; i++) {
+            if (input.charAt(i) != ' ' || input.charAt(i + 1) != '/') {
+                continue;
+            }
+            if (byAt == NOT_FOUND && hasMarkerAt(i, BY_MARKER)) {
+                byAt = i;
+            } else if (fromAt == NOT_FOUND && hasMarkerAt(i, FROM_MARKER)) {
+                fromAt = i;
+            } else if (toAt == NOT_FOUND && hasMarkerAt(i, TO_MARKER)) {
+                toAt = i;
+            }
+        }
+    }
+
+    private boolean hasMarkerAt(int i, String marker) {
+        return i + marker.length() <= end && input.startsWith(marker, i);
+    }
+
+    // The characters matched by \s in a regular expression.
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    boolean isEmpty() {
+        return commandStart == end;
+    }
+
+    String command() {
+        if (command == null) {
+            command = input.substring(commandStart, commandEnd);
+        }
+        return command;
+    }
+
+    boolean hasArgument() {
+        return argumentStart < end;
+    }
+
+    /**
+     * Returns the argument, trimmed, or an empty string if there is none.
+     */
+    String argument() {
+        return input.substring(argumentStart, end);
+    }
+
+    int argumentStart() {
+        return argumentStart;
+    }
+
+    int argumentEnd() {
+        return end;
+    }
+
+    /**
+     * Returns where {@link #BY_MARKER} starts in the input, or -1 if the argument has none.
+     */
+    int byAt() {
+        return byAt;
+    }
+
+    /**
+     * Returns where {@link #FROM_MARKER} starts in the input, or -1 if the argument has none.
+     */
+    int fromAt() {
+        return fromAt;
+    }
+
+    /**
+     * Returns where {@link #TO_MARKER} starts in the input, or -1 if the argument has none.
+     */
+    int toAt() {
+        return toAt;
+    }
+
+    /**
+     * Returns the input between two offsets, trimmed. A range that ends
+     * before it starts (overlapping markers) is empty.
+     */
+    String slice(int from, int to) {
+        while (from < to && input.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && input.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return from < to ? input.substring(from, to) : "";
+    }
+
+    /**
+     * Returns whether the argument is a single word, with no whitespace in it.
+     */
+    boolean isArgumentOneWord() {
+        for (int i = argumentStart; i < end; i++) {
+            if (isSpace(input.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,62 @@
+package atlas;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps command words to the functions that parse them into
+ * {@link Command} objects. New commands are added by registering a word;
+ * nothing else needs to change.
+ */
+class CommandRegistry {
+    private static final String UNKNOWN_COMMAND_ERROR = "I don't recognise that command: '%s'.";
+
+    /**
+     * Builds a command from its input line.
+     */
+    @FunctionalInterface
+    interface CommandParser {
+        /**
+         * @param line split user input, whose command word selected this parser
+         * @return the command to run
+         * @throws AtlasException if the input is invalid or arguments are missing
+         */
+        Command parse(CommandLine line) throws AtlasException;
+    }
+
+    private final Map<String, CommandParser> parsers = new HashMap<>();
+
+    /**
+     * Registers a command word, replacing any parser it already had.
+     *
+     * @param word   command word, as typed by the user
+     * @param parser function that builds the command
+     * @return this registry, for chaining
+     */
+    CommandRegistry register(String word, CommandParser parser) {
+        assert word != null && !word.isEmpty() : "command word must not be empty";
+        assert parser != null : "parser must not be null";
+        parsers.put(word, parser);
+        return this;
+    }
+
+    boolean isRegistered(String word) {
+        return parsers.containsKey(word);
+    }
+
+    /**
+     * Parses a line with the parser registered for its command word.
+     *
+     * @param line split user input, not empty
+     * @return the command to run
+     * @throws AtlasException if the word is not registered or its input is invalid
+     */
+    Command parse(CommandLine line) throws AtlasException {
+        String word = line.command();
+        CommandParser parser = parsers.get(word);
+        if (parser == null) {
+            throw new AtlasException(String.format(UNKNOWN_COMMAND_ERROR, word));
+        }
+        return parser.parse(line);
+    }
+}
@@ -0,0 +1,80 @@
+package atlas;
+
+import java.util.List;
+
+/**
+ * Outcome of running a {@link Command}: the message or page of tasks to
+ * show, and the journal records that still have to be persisted.
+ */
+final class CommandResult {
+    private final String message;
+    private final TaskPage page;
+    private final List<String> records;
+    private final boolean isExit;
+
+    private CommandResult(String message, TaskPage page, List<String> records, boolean isExit) {
+        this.message = message;
+        this.page = page;
+        this.records = records;
+        this.isExit = isExit;
+    }
+
+    /**
+     * Returns a result that shows a message and persists nothing.
+     */
+    static CommandResult message(String message) {
+        assert message != null : "message must not be null";
+        return new CommandResult(message, null, List.of(), false);
+    }
+
+    /**
+     * Returns a result that shows a message and persists one record.
+     */
+    static CommandResult change(String message, String record) {
+        assert message != null && record != null : "message and record must not be null";
+        return new CommandResult(message, null, List.of(record), false);
+    }
+
+    /**
+     * Returns a result that shows a page of tasks.
+     */
+    static CommandResult page(TaskPage page) {
+        assert page != null : "page must not be null";
+        return new CommandResult(null, page, List.of(), false);
+    }
+
+    /**
+     * Returns the result of {@code bye}, with an optional warning to show
+     * before saying goodbye.
+     *
+     * @param warning message to show first, or null
+     */
+    static CommandResult exit(String warning) {
+        return new CommandResult(warning, null, List.of(), true);
+    }
+
+    /**
+     * Returns the message to show, or null if there is none.
+     */
+    String message() {
+        return message;
+    }
+
+    /**
+     * Returns the page of tasks to show, or null if there is none.
+     */
+    TaskPage page() {
+        return page;
+    }
+
+    /**
+     * Returns the records to persist, in the order they were applied.
+     */
+    List<String> records() {
+        return records;
+    }
+
+    boolean isExit() {
+        return isExit;
+    }
+}
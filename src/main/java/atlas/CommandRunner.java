@@ -0,0 +1,117 @@
+package atlas;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs user commands on a background thread so the GUI stays responsive
+ * while a command (and the save that follows it) is running.
+ * <p>
+ * Commands run one at a time on a single worker thread, in the order they
+ * were submitted, and each reply is handed to a callback executor (the
+ * JavaFX application thread, via {@code Platform::runLater}) in that same
+ * order. The runner counts the commands whose replies have not yet been
+ * delivered, so the GUI can show that it is busy.
+ */
+class CommandRunner {
+    private static final String FAILED_MESSAGE = "Sorry, something went wrong while running that command: %s";
+    private static final long SHUTDOWN_WAIT_SECONDS = 5;
+
+    private final Function<String, Reply> handler;
+    private final Executor callbacks;
+    private final ExecutorService worker;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Creates a runner for the given Atlas instance.
+     *
+     * @param atlas     chatbot to run commands against; only the worker thread uses it
+     * @param callbacks executor that delivers replies, such as {@code Platform::runLater}
+     */
+    CommandRunner(Atlas atlas, Executor callbacks) {
+        this(input -> new Reply(input, atlas.getResponse(input), atlas.getCommandType()), callbacks);
+    }
+
+    /**
+     * Creates a runner that answers input with the given handler.
+     *
+     * @param handler   turns a line of input into a reply; only the worker thread calls it
+     * @param callbacks executor that delivers replies
+     */
+    CommandRunner(Function<String, Reply> handler, Executor callbacks) {
+        assert handler != null && callbacks != null : "handler and callbacks must not be null";
+        this.handler = handler;
+        this.callbacks = callbacks;
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "atlas-commands");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * The outcome of one line of input.
+     */
+    static final class Reply {
+        final String input;
+        final String response;
+        final String commandType; // null for neutral styling
+
+        Reply(String input, String response, String commandType) {
+            this.input = input;
+            this.response = response;
+            this.commandType = commandType;
+        }
+    }
+
+    /**
+     * Queues a line of input to run after every line submitted before it.
+     *
+     * @param input   raw user input
+     * @param onReply called through the callback executor with the reply
+     */
+    void submit(String input, Consumer<Reply> onReply) {
+        pending.incrementAndGet();
+        worker.execute(() -> {
+            Reply reply;
+            try {
+                reply = handler.apply(input);
+            } catch (RuntimeException e) {
+                // Without a reply the GUI would wait forever, so report it instead.
+                String detail = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                System.err.println("Warning: command '" + input + "' failed: " + detail);
+                reply = new Reply(input, String.format(FAILED_MESSAGE, detail), null);
+            }
+            Reply done = reply;
+            callbacks.execute(() -> {
+                pending.decrementAndGet();
+                onReply.accept(done);
+            });
+        });
+    }
+
+    /**
+     * Returns whether any submitted command has not had its reply delivered yet.
+     */
+    boolean isBusy() {
+        return pending.get() > 0;
+    }
+
+    /**
+     * Stops accepting commands and waits briefly for queued ones to finish,
+     * so their changes are saved.
+     */
+    void shutdown() {
+        worker.shutdown();
+        try {
+            worker.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package atlas;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The built-in {@link Command} implementations. Each is immutable and holds
+ * only what {@link Parser} read from the input; checks that depend on the
+ * task list, such as whether a task number is in range, happen when the
+ * command is executed.
+ */
+final class Commands {
+    static final String SAVE_FAILED_WARNING = "Warning: couldn't save tasks to disk.";
+
+    private static final int USER_DISPLAY_OFFSET = 1; // Convert 0-based to 1-based indexing
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    private static final String TASK_OUT_OF_RANGE_ERROR = "Task %s is out of range (1..%d).";
+    private static final String DUPLICATE_TASK_ERROR = "This task already exists in your list!";
+    private static final String PAGE_OUT_OF_RANGE_ERROR = "Page %d is out of range (1..%d).";
+    private static final String BATCH_ALREADY_OPEN_ERROR = "A batch is already open. Type 'commit' to save it first.";
+    private static final String NO_BATCH_ERROR = "There is no open batch. Type 'begin' to start one.";
+    private static final String BATCH_STARTED_MESSAGE =
+            "Batch started. Changes will be saved together when you type 'commit'.";
+    private static final String BATCH_COMMITTED_MESSAGE = "Batch committed: %d change(s) saved.";
+    private static final String BATCH_DISCARDED_MESSAGE = "Batch rolled back. Your list is back to how it was.";
+    private static final String BULK_MARKED_MESSAGE = "Nice! I've marked %d task(s) as done.";
+    private static final String BULK_UNMARKED_MESSAGE = "OK, I've marked %d task(s) as not done yet.";
+    private static final String BULK_REMOVED_MESSAGE = "Noted. I've removed %d task(s).\nNow you have %d tasks in the list.";
+    private static final String CLASH_HEADER = "\nHeads up, this clashes with:";
+    private static final String METRICS_OFF_MESSAGE =
+            "Stats are switched off. Start Atlas with -Datlas.metrics=true to collect them.";
+
+    private Commands() {
+    }
+
+    /**
+     * Returns the warning shown when a save fails, with the reason when the
+     * user can do something about it.
+     *
+     * @param e failure of the save
+     * @return warning for the user
+     */
+    static String saveFailedWarning(IOException e) {
+        if (e instanceof PagedTaskList.UnreadableTaskException) {
+            return SAVE_FAILED_WARNING + " " + e.getMessage();
+        }
+        return SAVE_FAILED_WARNING;
+    }
+
+    static void rollbackBatch(TaskList tasks, Storage storage) {
+        tasks.rollbackBatch();
+        storage.rollbackBatch();
+    }
+
+    private static int commitBatch(TaskList tasks, Storage storage) throws IOException {
+        tasks.commitBatch();
+        return storage.commitBatch(tasks.asList());
+    }
+
+    private static int checkIndex(String token, int number, int size) throws AtlasException {
+        if (number < 1 || number > size) {
+            throw new AtlasException(String.format(TASK_OUT_OF_RANGE_ERROR, token, size));
+        }
+        return number - USER_DISPLAY_OFFSET;
+    }
+
+    /**
+     * Saves an open batch and flushes pending writes, then exits.
+     */
+    static final class Bye implements Command {
+        @Override
+        public CommandResult execute(TaskList tasks, Storage storage) {
+            try {
+                if (storage.isBatching()) {
+                    commitBatch(tasks, storage);
+                }
+                storage.flush();
+            } catch (IOException e) {
+                return CommandResult.exit(saveFailedWarning(e));
+            }
+            return CommandResult.exit(null);
+        }
+    }
+
+    /**
+     * Opens a batch.
+     */
+    static final class Begin implements Command {
+        @Override
+        public CommandResult execute(TaskList tasks, Storage storage) throws AtlasException {
+            if (storage.isBatching()) {
+                throw new AtlasException(BATCH_ALREADY_OPEN_ERROR);
+            }
+            tasks.beginBatch();
+            storage.beginBatch();
+            return CommandResult.message(BATCH_STARTED_MESSAGE);
+        }
+    }
+
+    /**
+     * Saves the open batch.
+     */
+    static final class Commit implements Command {
+        @Override
+        public CommandResult execute(TaskList tasks, Storage storage) throws AtlasException {
+            if (!storage.isBatching()) {
+                throw new AtlasException(NO_BATCH_ERROR);
+            }
+            try {
+                return CommandResult.message(String.format(BATCH_COMMITTED_MESSAGE, commitBatch(tasks, storage)));
+            } catch (IOException e) {
+                return CommandResult.message(saveFailedWarning(e));
+            }
+        }
+    }
+
+    /**
+     * Discards the open batch.
+     */
+    static final class Rollback implements Command {
+        @Override
+        public CommandResult execute(TaskList tasks, Storage storage) throws AtlasException {
+            if (!storage.isBatching()) {
+                throw new AtlasException(NO_BATCH_ERROR);
+            }
+            rollbackBatch(tasks, storage);
+            return CommandResult.message(BATCH_DISCARDED_MESSAGE);
+        }
+    }
+
+    /**
+     * Shows the command counts, timings and save sizes recorded so far.
+     */
+    static final class ShowStats implements Command {
+        private final Metrics metrics;
+
+        ShowStats(Metrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public CommandResult execute(TaskList tasks, Storage storage) {
+            return CommandResult.message(metrics.isEnabled() ? metrics.format() : METRICS_OFF_MESSAGE);
+        }
+    }
+
+    /**
+     * Requested page and page size, either of which may be left out.
+     */
+    static final class Paging {
+        static final Paging DEFAULT = new Paging(0, 0);
+
+        final int page; // 0 when not given
+        final int size; // 0 when not given
+
+        Paging(int page, int size) {
+            assert page >= 0 && size >= 0 : "page and size must not be negative";
+            this.page = page;
+            this.size = size;
+        }
+
+        // Fills in defaults: results are shown whole unless a page or size was asked for.
+        Paging resolve(int total) throws AtlasException {
+            if (page == 0 && size == 0) {
+                return new Paging(1, 0);
+            }
+            Paging out = new Paging(Math.max(page, 1), size > 0 ? size : DEFAULT_PAGE_SIZE);
+            int pageCount = TaskPage.pageCount(total, out.size);
+            if (out.page > pageCount) {
+                throw new AtlasException(String.format(PAGE_OUT_OF_RANGE_ERROR, out.page, pageCount));
+            }
+            return out;
+        }
+    }
+
+    /**
+     * Shows the task list, or one page of it when a page or size is given.
+     */
+    static final class ListTasks implements Command {
+        private final Paging paging;
+
+        ListTasks(Paging paging) {
+            this.paging = paging;
+        }
+
+        @Override
+        public CommandResult execute(TaskList tasks, Storage storage) throws AtlasException {
+            Paging p = paging.resolve(tasks.size());
+            return CommandResult.page(tasks.listPage(p.page, p.size));
+        }
+    }
+
+    /**
+     * Selects the tasks to show for {@code find}, {@code due} and similar commands.
+     */
+    @FunctionalInterface
+    interface Query {
+        List<Task> run(TaskList tasks);
+    }
+
+    /**
+     * Shows the tasks picked out by a query.
+     */
+    static final class ShowMatches implements Command {
+        private final Query query;
+        private final Paging paging;
+
+        ShowMatches(Query query, Paging paging) {
+            this.query = query;
+            this.paging = paging;
+        }
+
+        @Override
+        public CommandResult execute(TaskList tasks, Storage storage) throws AtlasException {
+            List<Task> matches = query.run(tasks);
+            Paging p = paging.resolve(matches.size());
+            return CommandResult.page(tasks.matchPage(matches, p.page, p.size));
+        }
+    }
+
+    /**
+     * Marks one task as done or not done.
+     */
+    static final class Mark implements Command {
+        private final String token; // the number as typed, for error messages
+        private final int number;
+        private final boolean isDone;
+
+        Mark(String token, int number, boolean isDone) {
+            this.token = token;
+            this.number = number;
+            this.isDone = isDone;
+        }
+
+        @Override
+        public CommandResult execute(TaskList tasks, Storage storage) throws AtlasException {
+            int idx = checkIndex(token, number, tasks.size());
+            if (isDone) {
+                tasks.mark(idx);
+                return CommandResult.change("Nice! I've marked this task as done:\n " + tasks.get(idx),
+                        Storage.markRecord(idx));
+            }
+            tasks.unmark(idx);
+            return CommandResult.change("OK, I've marked this task as not done yet:\n " + tasks.get(idx),
+                    Storage.unmarkRecord(idx));
+        }
+
+        @Override
+        public boolean changesTasks() {
+            return true;
+        }
+    }
+
+    /**
+     * Task numbers named by ranges such as {@code 1,4,9-20}, or all done tasks.
+     */
+    static final class Selection {
+        private final IntList bounds; // lo, hi pairs, never changed; null selects the done tasks
+
+        private Selection(IntList bounds) {
+            this.bounds = bounds;
+        }
+
+        static Selection doneTasks() {
+            return new Selection(null);
+        }
+
+        static Selection ranges(IntList bounds) {
+            return new Selection(bounds.copy());
+        }
+
+        // Returns the zero-based positions selected in the list.
+        BitSet resolve(TaskList tasks) throws AtlasException {
+            if (bounds == null) {
+                return tasks.doneTasks();
+            }
+            for (int i = 0; i < bounds.size(); i++) {
+                int n = bounds.get(i);
+                if (n < 1 || n > tasks.size()) {
+                    throw new AtlasException(String.format(TASK_OUT_OF_RANGE_ERROR, n, tasks.size()));
+                }
+            }
+            return IndexRanges.toSet(bounds, -USER_DISPLAY_OFFSET);
+        }
+    }
+
+    /**
+     * Marks several tasks as done or not done.
+     */
+    static final class MarkAll implements Command {
+        private final Selection selection;
+        private final boolean isDone;
+
+        MarkAll(Selection selection, boolean isDone) {
+            this.selection = selection;
+            this.isDone = isDone;
+        }
+
+        @Override
+        public CommandResult execute(TaskList tasks, Storage storage) throws AtlasException {
+            BitSet selected = selection.resolve(tasks);
+            String message;
+            String record;
+            if (isDone) {
+                tasks.markAll(selected);
+                message = String.format(BULK_MARKED_MESSAGE, selected.cardinality());
+                record = Storage.markAllRecord(selected);
+            } else {
+                tasks.unmarkAll(selected);
+                message = String.format(BULK_UNMARKED_MESSAGE, selected.cardinality());
+                record = Storage.unmarkAllRecord(selected);
+            }
+            return selected.isEmpty() ? CommandResult.message(message) : CommandResult.change(message, record);
+        }
+
+        @Override
+        public boolean changesTasks() {
+            return true;
+        }
+    }
+
+    /**
+     * Removes one task.
+     */
+    static final class Delete implements Command {
+        private final String token; // the number as typed, for error messages
+        private final int number;
+
+        Delete(String token, int number) {
+            this.token = token;
+            this.number = number;
+        }
+
+        @Override
+        public CommandResult execute(TaskList tasks, Storage storage) throws AtlasException {
+            int idx = checkIndex(token, number, tasks.size());
+            Task removed = tasks.remove(idx);
+            String message = String.format("Noted. I've removed this task:\n %s\nNow you have %d tasks in the list.",
+                    removed, tasks.size());
+            return CommandResult.change(message, Storage.deleteRecord(idx));
+        }
+
+        @Override
+        public boolean changesTasks() {
+            return true;
+        }
+    }
+
+    /**
+     * Removes several tasks.
+     */
+    static final class DeleteAll implements Command {
+        private final Selection selection;
+
+        DeleteAll(Selection selection) {
+            this.selection = selection;
+        }
+
+        @Override
+        public CommandResult execute(TaskList tasks, Storage storage) throws AtlasException {
+            BitSet selected = selection.resolve(tasks);
+            int removed = tasks.removeAll(selected);
+            String message = String.format(BULK_REMOVED_MESSAGE, removed, tasks.size());
+            return selected.isEmpty()
+                    ? CommandResult.message(message)
+                    : CommandResult.change(message, Storage.deleteAllRecord(selected));
+        }
+
+        @Override
+        public boolean changesTasks() {
+            return true;
+        }
+    }
+
+    /**
+     * Adds a todo, deadline or event, refusing duplicates. Adding an event
+     * also lists the events it clashes with. The task is built afresh each
+     * time the command runs, since tasks change once they are in the list.
+     */
+    static final class Add implements Command {
+        private final Supplier<Task> factory;
+
+        Add(Supplier<Task> factory) {
+            assert factory != null : "factory must not be null";
+            this.factory = factory;
+        }
+
+        @Override
+        public CommandResult execute(TaskList tasks, Storage storage) throws AtlasException {
+            Task task = factory.get();
+            String note = task instanceof Event ? formatClashes(tasks.clashesWith((Event) task)) : "";
+            if (!tasks.addIfAbsent(task)) {
+                throw new AtlasException(DUPLICATE_TASK_ERROR);
+            }
+            Task lastTask = tasks.get(tasks.size() - 1);
+            String message = String.format("Got it. I've added this task:\n %s\nNow you have %d tasks in the list.",
+                    lastTask, tasks.size());
+            return CommandResult.change(message + note, Storage.addRecord(lastTask));
+        }
+
+        @Override
+        public boolean changesTasks() {
+            return true;
+        }
+
+        private static String formatClashes(List<Task> clashes) {
+            if (clashes.isEmpty()) {
+                return "";
+            }
+            StringBuilder sb = new StringBuilder(CLASH_HEADER);
+            for (Task t : clashes) {
+                sb.append("\n ").append(t);
+            }
+            return sb.toString();
+        }
+    }
+}
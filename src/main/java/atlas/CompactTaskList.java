@@ -0,0 +1,351 @@
+package atlas;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.RandomAccess;
+
+/**
+ * List of tasks stored as parallel arrays instead of task objects, for
+ * lists of millions of tasks.
+ * <p>
+ * Each task takes a type byte, a done bit, an epoch-day due date and the
+ * position of its text in a shared UTF-8 byte arena: about 13 bytes plus
+ * its text, against over a hundred for a task object with its strings
+ * and date. An event's text is its description, from and to, each but the
+ * last preceded by its length. Tasks are rebuilt from the arrays each time
+ * they are read, so callers get a new object from every {@link #get(int)};
+ * like the other lists, it is the values that matter, not the objects.
+ * <p>
+ * The arena is only ever appended to. Text of removed or replaced tasks is
+ * left behind as garbage until it makes up half the arena, when the live
+ * text is packed into a new one. Copies share the arena until either side
+ * writes to it, so a snapshot for a save or a batch copies only the small
+ * per-task arrays.
+ * <p>
+ * Changes need outside locking, as for any list; reads do not change
+ * anything and may come from several threads at once.
+ */
+class CompactTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final byte TODO = 0;
+    private static final byte DEADLINE = 1;
+    private static final byte EVENT = 2;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int INITIAL_ARENA_BYTES = 1024;
+    private static final int MIN_COMPACTION_BYTES = 64 * 1024;
+    private static final int NO_DATE = 0;
+
+    private byte[] types;
+    private long[] done; // one bit per task
+    private int[] dates; // due dates of deadlines as epoch days
+    private int[] textStarts;
+    private int[] textLengths;
+    private byte[] arena;
+    private int arenaUsed;
+    private int garbage; // arena bytes no task refers to any more
+    private boolean isArenaShared; // with a copy, so it is copied before the next write
+    private int size;
+
+    /**
+     * Creates an empty list.
+     */
+    CompactTaskList() {
+        types = new byte[INITIAL_CAPACITY];
+        done = new long[wordsFor(INITIAL_CAPACITY)];
+        dates = new int[INITIAL_CAPACITY];
+        textStarts = new int[INITIAL_CAPACITY];
+        textLengths = new int[INITIAL_CAPACITY];
+        arena = new byte[INITIAL_ARENA_BYTES];
+    }
+
+    private CompactTaskList(CompactTaskList other) {
+        size = other.size;
+        int capacity = Math.max(size, INITIAL_CAPACITY);
+        types = Arrays.copyOf(other.types, capacity);
+        done = Arrays.copyOf(other.done, wordsFor(capacity));
+        dates = Arrays.copyOf(other.dates, capacity);
+        textStarts = Arrays.copyOf(other.textStarts, capacity);
+        textLengths = Arrays.copyOf(other.textLengths, capacity);
+        arena = other.arena;
+        arenaUsed = other.arenaUsed;
+        garbage = other.garbage;
+        isArenaShared = true;
+        other.isArenaShared = true;
+    }
+
+    /**
+     * Returns an independent list with the same contents. The text arena
+     * is shared until one of the two lists writes to it.
+     */
+    CompactTaskList copy() {
+        return new CompactTaskList(this);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task get(int idx) {
+        checkIndex(idx, size);
+        int start = textStarts[idx];
+        int length = textLengths[idx];
+        Task t;
+        switch (types[idx]) {
+        case DEADLINE:
+            t = new Deadline(text(start, length), LocalDate.ofEpochDay(dates[idx]));
+            break;
+        case EVENT:
+            t = decodeEvent(start, start + length);
+            break;
+        default:
+            t = new Todo(text(start, length));
+        }
+        t.isDone = isDone(idx);
+        return t;
+    }
+
+    @Override
+    public Task set(int idx, Task t) {
+        assert t != null : "task must not be null";
+        Task old = get(idx);
+        byte type = typeOf(t);
+        byte[] text = encode(t);
+        // Marking a task replaces it with an equal copy; its text can stay where it is.
+        boolean isSameText = type == types[idx] && Arrays.equals(arena, textStarts[idx],
+                textStarts[idx] + textLengths[idx], text, 0, text.length);
+        if (!isSameText) {
+            garbage += textLengths[idx];
+            store(idx, type, t, text);
+            compactIfWasteful();
+        }
+        setDone(idx, t.isDone);
+        return old;
+    }
+
+    @Override
+    public void add(int idx, Task t) {
+        assert t != null : "task must not be null";
+        checkIndex(idx, size + 1);
+        ensureCapacity(size + 1);
+        if (idx < size) {
+            shift(idx, idx + 1, size - idx);
+        }
+        size++;
+        store(idx, typeOf(t), t, encode(t));
+        setDone(idx, t.isDone);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int idx) {
+        Task old = get(idx);
+        removeRange(idx, idx + 1);
+        return old;
+    }
+
+    @Override
+    protected void removeRange(int from, int to) {
+        assert from >= 0 && from <= to && to <= size : "remove range out of bounds";
+        if (from == to) {
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            garbage += textLengths[i];
+        }
+        shift(to, from, size - to);
+        size -= to - from;
+        clearDoneFrom(size);
+        modCount++;
+        compactIfWasteful();
+    }
+
+    /**
+     * Removes the tasks at the given indexes in one pass, moving each run of
+     * remaining tasks up once. Tasks are not rebuilt; their text is left in
+     * the arena as garbage.
+     *
+     * @param indexes zero-based indexes to remove, all within the list
+     */
+    void removeAll(BitSet indexes) {
+        int first = indexes.nextSetBit(0);
+        if (first < 0) {
+            return;
+        }
+        assert indexes.length() <= size : "index out of range";
+        for (int idx = first; idx >= 0; idx = indexes.nextSetBit(idx + 1)) {
+            garbage += textLengths[idx];
+        }
+        int write = first;
+        int read = indexes.nextClearBit(first);
+        while (read < size) {
+            int next = indexes.nextSetBit(read);
+            int end = next < 0 ? size : next;
+            shift(read, write, end - read);
+            write += end - read;
+            read = indexes.nextClearBit(end);
+        }
+        size = write;
+        clearDoneFrom(size);
+        modCount++;
+        compactIfWasteful();
+    }
+
+    // Moves count tasks from position from to position to, done bits included.
+    private void shift(int from, int to, int count) {
+        System.arraycopy(types, from, types, to, count);
+        System.arraycopy(dates, from, dates, to, count);
+        System.arraycopy(textStarts, from, textStarts, to, count);
+        System.arraycopy(textLengths, from, textLengths, to, count);
+        if (to < from) {
+            for (int i = 0; i < count; i++) {
+                setDone(to + i, isDone(from + i));
+            }
+        } else {
+            for (int i = count - 1; i >= 0; i--) {
+                setDone(to + i, isDone(from + i));
+            }
+        }
+    }
+
+    private void store(int idx, byte type, Task t, byte[] text) {
+        types[idx] = type;
+        dates[idx] = type == DEADLINE ? (int) ((Deadline) t).getBy().toEpochDay() : NO_DATE;
+        textStarts[idx] = append(text);
+        textLengths[idx] = text.length;
+    }
+
+    private static byte typeOf(Task t) {
+        if (t instanceof Deadline) {
+            return DEADLINE;
+        }
+        return t instanceof Event ? EVENT : TODO;
+    }
+
+    private static byte[] encode(Task t) {
+        if (!(t instanceof Event)) {
+            return t.description.getBytes(StandardCharsets.UTF_8);
+        }
+        Event e = (Event) t;
+        byte[] description = e.description.getBytes(StandardCharsets.UTF_8);
+        byte[] from = e.from.getBytes(StandardCharsets.UTF_8);
+        byte[] to = e.to.getBytes(StandardCharsets.UTF_8);
+        byte[] out = new byte[2 * Integer.BYTES + description.length + from.length + to.length];
+        int pos = putInt(out, 0, description.length);
+        System.arraycopy(description, 0, out, pos, description.length);
+        pos = putInt(out, pos + description.length, from.length);
+        System.arraycopy(from, 0, out, pos, from.length);
+        System.arraycopy(to, 0, out, pos + from.length, to.length);
+        return out;
+    }
+
+    private Event decodeEvent(int start, int end) {
+        int descriptionLength = getInt(start);
+        int pos = start + Integer.BYTES;
+        String description = text(pos, descriptionLength);
+        pos += descriptionLength;
+        int fromLength = getInt(pos);
+        pos += Integer.BYTES;
+        String from = text(pos, fromLength);
+        pos += fromLength;
+        return new Event(description, from, text(pos, end - pos));
+    }
+
+    private String text(int start, int length) {
+        return new String(arena, start, length, StandardCharsets.UTF_8);
+    }
+
+    private static int putInt(byte[] out, int pos, int value) {
+        out[pos] = (byte) (value >>> 24);
+        out[pos + 1] = (byte) (value >>> 16);
+        out[pos + 2] = (byte) (value >>> 8);
+        out[pos + 3] = (byte) value;
+        return pos + Integer.BYTES;
+    }
+
+    private int getInt(int pos) {
+        return (arena[pos] & 0xff) << 24 | (arena[pos + 1] & 0xff) << 16
+                | (arena[pos + 2] & 0xff) << 8 | (arena[pos + 3] & 0xff);
+    }
+
+    // Appends text to the arena and returns where it starts.
+    private int append(byte[] text) {
+        if (isArenaShared || arenaUsed + text.length > arena.length) {
+            long wanted = Math.max((long) arenaUsed + text.length, isArenaShared ? arena.length : 2L * arena.length);
+            if (wanted > Integer.MAX_VALUE - 8) {
+                throw new OutOfMemoryError("task text does not fit in one arena");
+            }
+            arena = Arrays.copyOf(arena, (int) wanted);
+            isArenaShared = false;
+        }
+        int start = arenaUsed;
+        System.arraycopy(text, 0, arena, start, text.length);
+        arenaUsed += text.length;
+        return start;
+    }
+
+    // Packs the live text into a new arena once most of the old one is garbage.
+    private void compactIfWasteful() {
+        if (arenaUsed < MIN_COMPACTION_BYTES || garbage * 2 < arenaUsed) {
+            return;
+        }
+        int live = arenaUsed - garbage;
+        byte[] packed = new byte[Math.max(INITIAL_ARENA_BYTES, live + live / 2)];
+        int pos = 0;
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(arena, textStarts[i], packed, pos, textLengths[i]);
+            textStarts[i] = pos;
+            pos += textLengths[i];
+        }
+        arena = packed;
+        arenaUsed = pos;
+        garbage = 0;
+        isArenaShared = false;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= types.length) {
+            return;
+        }
+        int capacity = Math.max(needed, types.length + (types.length >> 1));
+        types = Arrays.copyOf(types, capacity);
+        done = Arrays.copyOf(done, wordsFor(capacity));
+        dates = Arrays.copyOf(dates, capacity);
+        textStarts = Arrays.copyOf(textStarts, capacity);
+        textLengths = Arrays.copyOf(textLengths, capacity);
+    }
+
+    private boolean isDone(int idx) {
+        return (done[idx >>> 6] & (1L << idx)) != 0;
+    }
+
+    private void setDone(int idx, boolean isDone) {
+        if (isDone) {
+            done[idx >>> 6] |= 1L << idx;
+        } else {
+            done[idx >>> 6] &= ~(1L << idx);
+        }
+    }
+
+    // Clears the done bits of the slots past the end of the list.
+    private void clearDoneFrom(int idx) {
+        int word = idx >>> 6;
+        if (word < done.length) {
+            done[word] &= (1L << idx) - 1;
+            Arrays.fill(done, word + 1, done.length, 0L);
+        }
+    }
+
+    private static int wordsFor(int capacity) {
+        return (capacity + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static void checkIndex(int idx, int bound) {
+        if (idx < 0 || idx >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + bound);
+        }
+    }
+}
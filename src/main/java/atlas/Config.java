@@ -0,0 +1,191 @@
+package atlas;
+
+import java.nio.file.Path;
+
+/**
+ * Tuning options for Atlas, read from JVM system properties
+ * (e.g. {@code -Datlas.journal=true}) with sensible defaults.
+ */
+public class Config {
+    // Property names
+    static final String JOURNAL = "atlas.journal";
+    static final String JOURNAL_RATIO = "atlas.journal.ratio";
+    static final String DURABILITY = "atlas.durability";
+    static final String FORMAT = "atlas.format";
+    static final String WRITE_BEHIND = "atlas.writebehind";
+    static final String WRITE_BEHIND_WINDOW = "atlas.writebehind.window";
+    static final String WRITE_BEHIND_QUEUE = "atlas.writebehind.queue";
+    static final String LAZY = "atlas.lazy";
+    static final String LAZY_PAGES = "atlas.lazy.pages";
+    static final String COMPACT = "atlas.compact";
+    static final String HISTORY = "atlas.history";
+    static final String HISTORY_FILE = "atlas.history.file";
+    static final String METRICS = "atlas.metrics";
+    static final String METRICS_FILE = "atlas.metrics.file";
+
+    // Defaults
+    private static final double DEFAULT_JOURNAL_RATIO = 0.5;
+    private static final long DEFAULT_WRITE_BEHIND_WINDOW_MILLIS = 50;
+    private static final int DEFAULT_WRITE_BEHIND_QUEUE = 1024;
+    private static final int DEFAULT_LAZY_PAGES = 64;
+    private static final int DEFAULT_HISTORY = 1000;
+    private static final int MIN_HISTORY = 2; // one command and its reply
+
+    private Config() {
+    }
+
+    /**
+     * Returns whether mutations should be appended to a journal instead of
+     * rewriting the whole save file.
+     *
+     * @return {@code true} if journal mode is switched on
+     */
+    public static boolean isJournalEnabled() {
+        return Boolean.getBoolean(JOURNAL);
+    }
+
+    /**
+     * Returns how large the journal may grow, relative to the snapshot,
+     * before it is folded back into the snapshot.
+     *
+     * @return compaction ratio (e.g. 0.5 means half the snapshot size)
+     */
+    public static double journalCompactionRatio() {
+        return getDouble(JOURNAL_RATIO, DEFAULT_JOURNAL_RATIO);
+    }
+
+    /**
+     * Returns how aggressively saves are forced to disk.
+     *
+     * @return configured durability level, {@link Durability#BATCH} by default
+     */
+    public static Durability durability() {
+        return Durability.parse(System.getProperty(DURABILITY), Durability.BATCH);
+    }
+
+    /**
+     * Returns the layout to write the save file in.
+     *
+     * @return configured save format, {@link SaveFormat#TEXT} by default
+     */
+    public static SaveFormat saveFormat() {
+        return SaveFormat.parse(System.getProperty(FORMAT), SaveFormat.TEXT);
+    }
+
+    /**
+     * Returns whether saves should happen on a background thread.
+     *
+     * @return {@code true} if write-behind is switched on
+     */
+    public static boolean isWriteBehindEnabled() {
+        return Boolean.getBoolean(WRITE_BEHIND);
+    }
+
+    /**
+     * Returns how long the background writer waits for more changes before
+     * writing a burst out together.
+     *
+     * @return coalescing window in milliseconds
+     */
+    public static long writeBehindWindowMillis() {
+        return Math.max(0, Long.getLong(WRITE_BEHIND_WINDOW, DEFAULT_WRITE_BEHIND_WINDOW_MILLIS));
+    }
+
+    /**
+     * Returns how many changes may wait for the background writer before
+     * commands have to wait for it to catch up.
+     *
+     * @return queue capacity
+     */
+    public static int writeBehindQueueCapacity() {
+        return Math.max(1, Integer.getInteger(WRITE_BEHIND_QUEUE, DEFAULT_WRITE_BEHIND_QUEUE));
+    }
+
+    /**
+     * Returns whether a binary save file should be read on demand instead of
+     * being loaded in full at startup.
+     *
+     * @return {@code true} if lazy loading is switched on
+     */
+    public static boolean isLazyLoadEnabled() {
+        return Boolean.getBoolean(LAZY);
+    }
+
+    /**
+     * Returns how many pages of decoded tasks lazy loading keeps in memory.
+     *
+     * @return page cache size
+     */
+    public static int lazyCachePages() {
+        return Math.max(1, Integer.getInteger(LAZY_PAGES, DEFAULT_LAZY_PAGES));
+    }
+
+    /**
+     * Returns whether tasks should be kept in a {@link CompactTaskList}
+     * instead of as task objects. Lazy loading takes precedence.
+     *
+     * @return {@code true} if the compact task store is switched on
+     */
+    public static boolean isCompactEnabled() {
+        return Boolean.getBoolean(COMPACT);
+    }
+
+    /**
+     * Returns how many messages the GUI keeps in its conversation before
+     * letting go of the oldest.
+     *
+     * @return maximum number of messages shown
+     */
+    public static int historyLimit() {
+        return Math.max(MIN_HISTORY, Integer.getInteger(HISTORY, DEFAULT_HISTORY));
+    }
+
+    /**
+     * Returns the file that messages leaving the GUI's conversation are
+     * appended to, if any.
+     *
+     * @return path of the history file, or {@code null} to drop old messages
+     */
+    public static Path historyFile() {
+        return getPath(HISTORY_FILE);
+    }
+
+    /**
+     * Returns whether command timings and save sizes should be recorded for
+     * the {@code stats} command. Giving a dump file switches them on too.
+     *
+     * @return {@code true} if metrics are switched on
+     */
+    public static boolean isMetricsEnabled() {
+        return Boolean.getBoolean(METRICS) || metricsFile() != null;
+    }
+
+    /**
+     * Returns the file that metrics are written to when Atlas exits, if any.
+     *
+     * @return path of the metrics file, or {@code null} to not write one
+     */
+    public static Path metricsFile() {
+        return getPath(METRICS_FILE);
+    }
+
+    private static Path getPath(String key) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return Path.of(value.trim());
+    }
+
+    private static double getDouble(String key, double fallback) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
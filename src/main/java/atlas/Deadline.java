@@ -30,6 +30,27 @@ public class Deadline extends Task {
         this.by = LocalDate.parse(by, IN);
     }
 
+    /**
+     * Creates a deadline task from an already parsed due date.
+     *
+     * @param description description of the task
+     * @param by          due date
+     */
+    public Deadline(String description, LocalDate by) {
+        super(description);
+        assert by != null : "Deadline 'by' date must not be null";
+        this.by = by;
+    }
+
+    /**
+     * Returns the due date of this deadline.
+     *
+     * @return due date
+     */
+    public LocalDate getBy() {
+        return by;
+    }
+
     @Override
     protected String typeCode() {
         return "D";
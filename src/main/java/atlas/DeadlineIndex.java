@@ -0,0 +1,65 @@
+package atlas;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.TreeMap;
+
+/**
+ * Sorted index from due date to the ids of the deadlines due that day, so
+ * date lookups cost a tree search plus the size of the answer instead of a
+ * scan of the whole list.
+ */
+class DeadlineIndex {
+    private final TreeMap<LocalDate, IntList> byDate = new TreeMap<>();
+
+    /**
+     * Indexes a newly added deadline. Ids must be added in ascending order.
+     */
+    void add(int id, LocalDate by) {
+        byDate.computeIfAbsent(by, d -> new IntList()).add(id);
+    }
+
+    void remove(int id, LocalDate by) {
+        IntList ids = byDate.get(by);
+        if (ids != null) {
+            ids.removeSorted(id);
+            if (ids.isEmpty()) {
+                byDate.remove(by);
+            }
+        }
+    }
+
+    /**
+     * Returns the ids due on {@code date}, in list order.
+     */
+    int[] on(LocalDate date) {
+        IntList ids = byDate.get(date);
+        return ids == null ? new int[0] : ids.toArray();
+    }
+
+    /**
+     * Returns the ids due between {@code from} and {@code to} (both inclusive),
+     * ordered by date and then by list order.
+     */
+    int[] between(LocalDate from, LocalDate to) {
+        return flatten(byDate.subMap(from, true, to, true).values());
+    }
+
+    /**
+     * Returns the ids due strictly before {@code date}, ordered by date and
+     * then by list order.
+     */
+    int[] before(LocalDate date) {
+        return flatten(byDate.headMap(date, false).values());
+    }
+
+    private static int[] flatten(Collection<IntList> lists) {
+        IntList out = new IntList();
+        for (IntList ids : lists) {
+            for (int i = 0; i < ids.size(); i++) {
+                out.add(ids.get(i));
+            }
+        }
+        return out.toArray();
+    }
+}
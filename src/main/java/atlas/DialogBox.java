@@ -1,14 +1,12 @@
 package atlas;
 
 import java.io.IOException;
-import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -17,43 +15,145 @@ import javafx.scene.layout.HBox;
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face
  * and a label containing text from the speaker.
+ * <p>
+ * Only the first box is loaded from FXML; {@link DialogFactory} keeps it as
+ * a prototype and builds every other box by copying its layout and styling.
+ * Boxes are then reused for one message after another with
+ * {@link #setMessage}. The copy lists what DialogBox.fxml sets, so the two
+ * must be changed together; {@code DialogBoxBenchmark} checks that they
+ * still agree.
  */
 public class DialogBox extends HBox {
+    private static final String REPLY_STYLE = "reply-label";
+    private static final List<String> COMMAND_STYLES = List.of("add-label", "marked-label", "delete-label");
+
     @FXML
     private Label dialog;
     @FXML
     private ImageView displayPicture;
 
-    private DialogBox(String text, Image img) {
+    private DialogBox() {
+    }
+
+    /**
+     * Builds a box laid out and styled like the prototype, without parsing FXML.
+     */
+    private DialogBox(DialogBox prototype) {
+        setAlignment(prototype.getAlignment());
+        setPadding(prototype.getPadding());
+        setMaxSize(prototype.getMaxWidth(), prototype.getMaxHeight());
+        setPrefWidth(prototype.getPrefWidth());
+        getStylesheets().setAll(prototype.getStylesheets());
+        getStyleClass().setAll(prototype.getStyleClass());
+
+        Label label = prototype.dialog;
+        dialog = new Label();
+        dialog.setId(label.getId());
+        dialog.getStyleClass().setAll(label.getStyleClass());
+        dialog.setMinHeight(label.getMinHeight());
+        dialog.setWrapText(label.isWrapText());
+        dialog.setPadding(label.getPadding());
+        HBox.setMargin(dialog, HBox.getMargin(label));
+
+        ImageView picture = prototype.displayPicture;
+        displayPicture = new ImageView();
+        displayPicture.setId(picture.getId());
+        displayPicture.getStyleClass().setAll(picture.getStyleClass());
+        displayPicture.setFitWidth(picture.getFitWidth());
+        displayPicture.setFitHeight(picture.getFitHeight());
+        displayPicture.setPickOnBounds(picture.isPickOnBounds());
+        displayPicture.setPreserveRatio(picture.isPreserveRatio());
+
+        getChildren().setAll(dialog, displayPicture);
+    }
+
+    /**
+     * Loads a dialog box from its FXML file. This parses the file each time,
+     * so it is only used for the prototype.
+     */
+    static DialogBox loadFromFxml() {
+        DialogBox box = new DialogBox();
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
-            fxmlLoader.setController(this);
-            fxmlLoader.setRoot(this);
+            fxmlLoader.setController(box);
+            fxmlLoader.setRoot(box);
             fxmlLoader.load();
         } catch (IOException e) {
             e.printStackTrace();
         }
+        return box;
+    }
 
-        dialog.setText(text);
-        displayPicture.setImage(img);
+    /**
+     * Returns a new, empty box laid out like this one.
+     */
+    DialogBox copy() {
+        return new DialogBox(this);
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Returns whether this box is laid out and styled like the other one,
+     * comparing everything the copy constructor copies.
      */
-    private void flip() {
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        Collections.reverse(tmp);
-        getChildren().setAll(tmp);
-        setAlignment(Pos.TOP_LEFT);
-        dialog.getStyleClass().add("reply-label");
+    boolean hasSameLayout(DialogBox other) {
+        Label label = other.dialog;
+        ImageView picture = other.displayPicture;
+        return getAlignment() == other.getAlignment()
+                && getPadding().equals(other.getPadding())
+                && getMaxWidth() == other.getMaxWidth()
+                && getMaxHeight() == other.getMaxHeight()
+                && getPrefWidth() == other.getPrefWidth()
+                && getStylesheets().equals(other.getStylesheets())
+                && getStyleClass().equals(other.getStyleClass())
+                && Objects.equals(dialog.getId(), label.getId())
+                && dialog.getStyleClass().equals(label.getStyleClass())
+                && dialog.getMinHeight() == label.getMinHeight()
+                && dialog.isWrapText() == label.isWrapText()
+                && dialog.getPadding().equals(label.getPadding())
+                && Objects.equals(HBox.getMargin(dialog), HBox.getMargin(label))
+                && Objects.equals(displayPicture.getId(), picture.getId())
+                && displayPicture.getStyleClass().equals(picture.getStyleClass())
+                && displayPicture.getFitWidth() == picture.getFitWidth()
+                && displayPicture.getFitHeight() == picture.getFitHeight()
+                && displayPicture.isPickOnBounds() == picture.isPickOnBounds()
+                && displayPicture.isPreserveRatio() == picture.isPreserveRatio()
+                && getChildren().equals(List.of(dialog, displayPicture))
+                && other.getChildren().equals(List.of(label, picture));
     }
 
-    public static DialogBox getUserDialog(String text, Image img) {
-        return new DialogBox(text, img);
+    /**
+     * Shows another message in this dialog box, so one box can be reused
+     * for many messages, as the cells of a list view are.
+     *
+     * @param text        message text
+     * @param img         speaker's picture
+     * @param isReply     true for Atlas's replies, shown on the left
+     * @param commandType command type for colour-coding, or null
+     */
+    void setMessage(String text, Image img, boolean isReply, String commandType) {
+        dialog.setText(text);
+        displayPicture.setImage(img);
+        dialog.getStyleClass().remove(REPLY_STYLE);
+        dialog.getStyleClass().removeAll(COMMAND_STYLES);
+        if (isReply) {
+            getChildren().setAll(displayPicture, dialog);
+            setAlignment(Pos.TOP_LEFT);
+            dialog.getStyleClass().add(REPLY_STYLE);
+        } else {
+            getChildren().setAll(dialog, displayPicture);
+            setAlignment(Pos.TOP_RIGHT);
+        }
+        if (commandType != null) {
+            changeDialogStyle(commandType);
+        }
     }
 
+    /**
+     * Colour-codes the message by the kind of command it answers, replacing
+     * any colour it already had so a reused box does not pick up two.
+     */
     public void changeDialogStyle(String commandType) {
+        dialog.getStyleClass().removeAll(COMMAND_STYLES);
         switch(commandType) {
         case "AddCommand":
             dialog.getStyleClass().add("add-label");
@@ -68,11 +168,4 @@ public class DialogBox extends HBox {
             // Do nothing
         }
     }
-
-
-    public static DialogBox getDukeDialog(String text, Image img) {
-        var db = new DialogBox(text, img);
-        db.flip();
-        return db;
-    }
 }
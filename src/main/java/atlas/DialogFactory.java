@@ -0,0 +1,63 @@
+package atlas;
+
+import javafx.scene.image.Image;
+
+/**
+ * Creates dialog boxes and holds the speakers' pictures.
+ * <p>
+ * Parsing the dialog box FXML costs far more than building the nodes it
+ * describes, so the file is parsed once into a prototype and each new box
+ * copies the prototype's layout and styling in code. The pictures are
+ * decoded once and shared by every box and window. Like the nodes it
+ * creates, this class is only used on the JavaFX application thread.
+ */
+final class DialogFactory {
+    private static final String USER_IMAGE = "/images/DaUser.png";
+    private static final String ATLAS_IMAGE = "/images/DaDuke.png";
+
+    private static DialogBox prototype; // loaded when first needed, never shown
+    private static Image userImage;
+    private static Image atlasImage;
+
+    private DialogFactory() {
+    }
+
+    /**
+     * Returns a new, empty dialog box to be filled in with {@link DialogBox#setMessage}.
+     */
+    static DialogBox create() {
+        if (prototype == null) {
+            prototype = DialogBox.loadFromFxml();
+        }
+        return prototype.copy();
+    }
+
+    /**
+     * Returns the user's picture, or null if it could not be loaded.
+     */
+    static Image userImage() {
+        if (userImage == null) {
+            userImage = loadImage(USER_IMAGE);
+        }
+        return userImage;
+    }
+
+    /**
+     * Returns Atlas's picture, or null if it could not be loaded.
+     */
+    static Image atlasImage() {
+        if (atlasImage == null) {
+            atlasImage = loadImage(ATLAS_IMAGE);
+        }
+        return atlasImage;
+    }
+
+    private static Image loadImage(String path) {
+        try {
+            return new Image(DialogFactory.class.getResourceAsStream(path));
+        } catch (Exception e) {
+            System.err.println("Failed to load image " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package atlas;
+
+import java.io.IOException;
+
+/**
+ * Runs user input through four separate stages: parse the line into a
+ * {@link Command}, execute it against the task list, render its result
+ * through the Ui, and persist its journal records.
+ * <p>
+ * Each stage is its own method so callers can time, batch or reorder them.
+ * {@link #dispatch} times each stage into {@link Metrics}, keyed by the
+ * command word, and emits a {@link CommandEvent} for Flight Recorder.
+ * Inside a batch (between {@code begin} and {@code commit}), a command that
+ * changes tasks and fails to execute rolls the whole batch back before its
+ * error is reported. Lines that fail to parse, and other commands that
+ * fail, such as a second {@code begin}, leave the batch as it was.
+ */
+class Dispatcher {
+    private static final String BATCH_ROLLED_BACK_NOTE = "\nThe batch was rolled back; none of its changes were kept.";
+    private static final String UNKNOWN_COMMAND = "(unknown)"; // groups mistyped words in the metrics
+
+    private final CommandRegistry registry;
+    private final Metrics metrics;
+
+    /**
+     * Creates a dispatcher for the commands in the given registry, without metrics.
+     *
+     * @param registry command words and their parsers
+     */
+    Dispatcher(CommandRegistry registry) {
+        this(registry, Metrics.DISABLED);
+    }
+
+    /**
+     * Creates a dispatcher that records its commands in the given metrics.
+     *
+     * @param registry command words and their parsers
+     * @param metrics  where to record command counts and stage timings
+     */
+    Dispatcher(CommandRegistry registry, Metrics metrics) {
+        assert registry != null : "registry must not be null";
+        assert metrics != null : "metrics must not be null";
+        this.registry = registry;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Runs one line of input through every stage.
+     *
+     * @param line    split user input
+     * @param tasks   task list to operate on
+     * @param ui      UI for showing messages to users
+     * @param storage storage for persisting changes
+     * @return true if the user asked to exit (i.e. bye)
+     * @throws AtlasException if the input is invalid or does not fit the list
+     */
+    boolean dispatch(CommandLine line, TaskList tasks, Ui ui, Storage storage) throws AtlasException {
+        if (line.isEmpty()) {
+            return false;
+        }
+        String name = registry.isRegistered(line.command()) ? line.command() : UNKNOWN_COMMAND;
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        long start = metrics.now();
+        boolean isFailed = true;
+        try {
+            boolean isExit = runStages(name, line, tasks, ui, storage);
+            isFailed = false;
+            return isExit;
+        } finally {
+            metrics.recordCommand(name, start, isFailed);
+            event.finish(name, tasks, isFailed);
+        }
+    }
+
+    private boolean runStages(String name, CommandLine line, TaskList tasks, Ui ui, Storage storage)
+            throws AtlasException {
+        long t = metrics.now();
+        Command command = parse(line);
+        t = metrics.record(name, Metrics.Phase.PARSE, t);
+        CommandResult result;
+        try {
+            result = execute(command, tasks, storage);
+            t = metrics.record(name, Metrics.Phase.EXECUTE, t);
+        } catch (AtlasException e) {
+            if (!command.changesTasks() || !storage.isBatching()) {
+                throw e;
+            }
+            Commands.rollbackBatch(tasks, storage);
+            throw new AtlasException(e.getMessage() + BATCH_ROLLED_BACK_NOTE);
+        }
+        render(result, ui);
+        t = metrics.record(name, Metrics.Phase.RENDER, t);
+        try {
+            persist(result, tasks, storage);
+        } catch (IOException e) {
+            ui.show(Commands.saveFailedWarning(e));
+        }
+        metrics.record(name, Metrics.Phase.PERSIST, t);
+        return result.isExit();
+    }
+
+    /**
+     * Parses a line into a command without touching the task list.
+     */
+    Command parse(CommandLine line) throws AtlasException {
+        return registry.parse(line);
+    }
+
+    /**
+     * Runs a command against the task list.
+     */
+    CommandResult execute(Command command, TaskList tasks, Storage storage) throws AtlasException {
+        return command.execute(tasks, storage);
+    }
+
+    /**
+     * Shows a command's result.
+     */
+    void render(CommandResult result, Ui ui) {
+        if (result.page() != null) {
+            ui.showTasks(result.page());
+        } else if (result.message() != null) {
+            ui.show(result.message());
+        }
+        if (result.isExit()) {
+            ui.showBye();
+        }
+    }
+
+    /**
+     * Persists a command's records, if it has any.
+     *
+     * @throws IOException if the journal or save file cannot be written
+     */
+    void persist(CommandResult result, TaskList tasks, Storage storage) throws IOException {
+        if (!result.records().isEmpty()) {
+            storage.recordAll(result.records(), tasks.asList());
+        }
+    }
+}
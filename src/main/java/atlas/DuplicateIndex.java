@@ -0,0 +1,106 @@
+package atlas;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Hash index of task ids under the identity defined by
+ * {@link Task#equals(Object)}, used for duplicate checks.
+ * <p>
+ * Only each task's hash code and id are stored, in two parallel arrays with
+ * open addressing, so the index holds no references to the tasks themselves.
+ * Candidates with a matching hash are looked up through a caller-supplied
+ * function and compared with {@code equals}. This keeps the index small and
+ * lets a lazily loaded list drop decoded tasks once they leave its cache.
+ */
+class DuplicateIndex {
+    private static final int EMPTY = -1;
+    private static final int REMOVED = -2;
+    private static final int MIN_CAPACITY = 16;
+    private static final double MAX_LOAD = 0.6;
+
+    private int[] hashes;
+    private int[] ids;
+    private int used; // live entries plus tombstones
+    private int live;
+
+    DuplicateIndex() {
+        allocate(MIN_CAPACITY);
+    }
+
+    void add(int id, Task t) {
+        assert id >= 0 : "ids must not be negative";
+        if (used + 1 > hashes.length * MAX_LOAD) {
+            // Grow only when live entries need it; otherwise just clear tombstones.
+            rehash(live + 1 > hashes.length * MAX_LOAD / 2 ? hashes.length * 2 : hashes.length);
+        }
+        int hash = t.hashCode();
+        int slot = slotFor(hash);
+        while (ids[slot] >= 0) {
+            slot = (slot + 1) & (ids.length - 1);
+        }
+        if (ids[slot] == EMPTY) {
+            used++;
+        }
+        hashes[slot] = hash;
+        ids[slot] = id;
+        live++;
+    }
+
+    void remove(int id, Task t) {
+        int hash = t.hashCode();
+        for (int slot = slotFor(hash); ids[slot] != EMPTY; slot = (slot + 1) & (ids.length - 1)) {
+            if (ids[slot] == id) {
+                ids[slot] = REMOVED;
+                live--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns whether a task equal to {@code t} is indexed.
+     *
+     * @param lookup maps an indexed id back to its task
+     */
+    boolean contains(Task t, IntFunction<Task> lookup) {
+        int hash = t.hashCode();
+        for (int slot = slotFor(hash); ids[slot] != EMPTY; slot = (slot + 1) & (ids.length - 1)) {
+            if (ids[slot] >= 0 && hashes[slot] == hash && t.equals(lookup.apply(ids[slot]))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int slotFor(int hash) {
+        int h = hash * 0x9E3779B9; // spread clustered hash codes
+        return (h ^ (h >>> 16)) & (ids.length - 1);
+    }
+
+    private void allocate(int capacity) {
+        hashes = new int[capacity];
+        ids = new int[capacity];
+        Arrays.fill(ids, EMPTY);
+        used = 0;
+        live = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldHashes = hashes;
+        int[] oldIds = ids;
+        allocate(capacity);
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] >= 0) {
+                int slot = slotFor(oldHashes[i]);
+                while (ids[slot] != EMPTY) {
+                    slot = (slot + 1) & (ids.length - 1);
+                }
+                hashes[slot] = oldHashes[i];
+                ids[slot] = oldIds[i];
+                used++;
+                live++;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package atlas;
+
+/**
+ * How hard {@link Storage} tries to get each write onto the disk before
+ * returning, trading fsync cost against safety after a crash or power loss.
+ */
+public enum Durability {
+    /** Leave flushing to the operating system; fastest, may lose recent edits. */
+    NONE,
+    /** Force each snapshot and each group of journal records to disk once. */
+    BATCH,
+    /** Force every individual journal record to disk as it is written. */
+    WRITE;
+
+    /**
+     * Parses a durability level from its (case-insensitive) name.
+     *
+     * @param name    level name such as {@code none}, {@code batch} or {@code write}
+     * @param fallback level to use if {@code name} is missing or unknown
+     * @return parsed durability level
+     */
+    public static Durability parse(String name, Durability fallback) {
+        if (name == null) {
+            return fallback;
+        }
+        for (Durability d : values()) {
+            if (d.name().equalsIgnoreCase(name.trim())) {
+                return d;
+            }
+        }
+        return fallback;
+    }
+}
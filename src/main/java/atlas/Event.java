@@ -1,12 +1,38 @@
 package atlas;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.temporal.TemporalQuery;
+
 /**
  * A task that occurs during a time window described by free-text with
  * from and to fields.
+ * <p>
+ * The free text is always kept as typed. When it also reads as a date or
+ * date-time (e.g. {@code 2025-10-15}, {@code 2025-10-15 14:00}, or just
+ * {@code 16:00} for the end), the window is parsed into {@link LocalDateTime}
+ * values as well so events can be checked for clashes. A date on its own
+ * covers the whole day.
  */
 public class Event extends Task {
     protected String from;
     protected String to;
+    protected LocalDateTime start;
+    protected LocalDateTime end;
+
+    private static final DateTimeFormatter DATE_TIME_WITH_COLON =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm").withResolverStyle(ResolverStyle.STRICT);
+    private static final DateTimeFormatter DATE_TIME_WITHOUT_COLON =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd HHmm").withResolverStyle(ResolverStyle.STRICT);
+    private static final DateTimeFormatter TIME_WITH_COLON =
+            DateTimeFormatter.ofPattern("HH:mm").withResolverStyle(ResolverStyle.STRICT);
+    private static final DateTimeFormatter TIME_WITHOUT_COLON =
+            DateTimeFormatter.ofPattern("HHmm").withResolverStyle(ResolverStyle.STRICT);
+    private static final int DATE_LENGTH = "uuuu-MM-dd".length();
 
     /**
      * Creates an event task.
@@ -22,6 +48,107 @@ public class Event extends Task {
         assert to != null && !to.trim().isEmpty() : "Event 'to' must not be empty";
         this.from = from;
         this.to = to;
+        parseWindow();
+    }
+
+    /**
+     * Returns the parsed start of this event.
+     *
+     * @return start time, or {@code null} if {@code from} is free text
+     */
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the parsed (exclusive) end of this event.
+     *
+     * @return end time, or {@code null} if the window could not be parsed
+     */
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns whether this event's window was understood as real times.
+     *
+     * @return {@code true} if {@link #getStart()} and {@link #getEnd()} are set
+     */
+    public boolean hasWindow() {
+        return start != null;
+    }
+
+    // Sets start/end if from/to read as times and the window is not empty.
+    private void parseWindow() {
+        LocalDateTime s = parseDateTime(from.trim());
+        if (s == null) {
+            LocalDate d = parseDate(from.trim());
+            s = d == null ? null : d.atStartOfDay();
+        }
+        if (s == null) {
+            return;
+        }
+
+        String toText = to.trim();
+        LocalDateTime e = parseDateTime(toText);
+        if (e == null) {
+            LocalDate d = parseDate(toText);
+            LocalTime t = parseTime(toText);
+            if (d != null) {
+                e = d.plusDays(1).atStartOfDay();
+            } else if (t != null) {
+                e = s.toLocalDate().atTime(t);
+            }
+        }
+        if (e != null && e.isAfter(s)) {
+            start = s;
+            end = e;
+        }
+    }
+
+    // Every supported format starts with a digit; checking that first keeps
+    // free-text windows like "Mon 2pm" from paying for failed parses.
+    private static boolean mayBeTime(String text) {
+        return !text.isEmpty() && Character.isDigit(text.charAt(0));
+    }
+
+    // Only the format whose separators match the text is tried, as a failed
+    // parse throws, which would cost more than the parse itself.
+    private static LocalDateTime parseDateTime(String text) {
+        if (!mayBeTime(text) || text.length() <= DATE_LENGTH) {
+            return null;
+        }
+        char separator = text.charAt(DATE_LENGTH);
+        if (separator == 'T') {
+            return parse(text, DateTimeFormatter.ISO_LOCAL_DATE_TIME, LocalDateTime::from);
+        }
+        if (separator != ' ') {
+            return null;
+        }
+        DateTimeFormatter f = text.indexOf(':') >= 0 ? DATE_TIME_WITH_COLON : DATE_TIME_WITHOUT_COLON;
+        return parse(text, f, LocalDateTime::from);
+    }
+
+    private static LocalDate parseDate(String text) {
+        if (!mayBeTime(text) || text.length() != DATE_LENGTH) {
+            return null;
+        }
+        return parse(text, DateTimeFormatter.ISO_LOCAL_DATE, LocalDate::from);
+    }
+
+    private static LocalTime parseTime(String text) {
+        if (!mayBeTime(text)) {
+            return null;
+        }
+        return parse(text, text.indexOf(':') >= 0 ? TIME_WITH_COLON : TIME_WITHOUT_COLON, LocalTime::from);
+    }
+
+    private static <T> T parse(String text, DateTimeFormatter f, TemporalQuery<T> query) {
+        try {
+            return f.parse(text, query);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
     }
 
     @Override
@@ -0,0 +1,156 @@
+package atlas;
+
+import java.util.Random;
+
+/**
+ * Interval tree over events with a known start and end, used for clash
+ * checks and "what's on" queries.
+ * <p>
+ * It is a treap ordered by start time, where each node also remembers the
+ * latest end time in its subtree. A search skips every subtree that ends
+ * before the query window, so it costs about O(log N + k) for k results.
+ * Times are plain numbers (e.g. epoch seconds) and intervals are half-open,
+ * {@code [start, end)}.
+ */
+class EventIndex {
+    private final Random random = new Random();
+    private Node root;
+
+    private static final class Node {
+        final long start;
+        final long end;
+        final int id;
+        final int priority;
+        long maxEnd;
+        Node left;
+        Node right;
+
+        Node(int id, long start, long end, int priority) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+    }
+
+    void add(int id, long start, long end) {
+        assert start < end : "event must end after it starts";
+        root = insert(root, new Node(id, start, end, random.nextInt()));
+    }
+
+    void remove(int id, long start) {
+        root = delete(root, id, start);
+    }
+
+    /**
+     * Returns the ids of events overlapping {@code [from, to)}, ordered by start time.
+     */
+    int[] overlapping(long from, long to) {
+        IntList out = new IntList();
+        collect(root, from, to, out);
+        return out.toArray();
+    }
+
+    private static void collect(Node n, long from, long to, IntList out) {
+        if (n == null || n.maxEnd <= from) {
+            return;
+        }
+        collect(n.left, from, to, out);
+        if (n.start < to && n.end > from) {
+            out.add(n.id);
+        }
+        if (n.start < to) {
+            collect(n.right, from, to, out);
+        }
+    }
+
+    private static int compare(long start, int id, Node n) {
+        int c = Long.compare(start, n.start);
+        return c != 0 ? c : Integer.compare(id, n.id);
+    }
+
+    private static Node insert(Node n, Node x) {
+        if (n == null) {
+            return x;
+        }
+        if (compare(x.start, x.id, n) < 0) {
+            n.left = insert(n.left, x);
+            if (n.left.priority > n.priority) {
+                n = rotateRight(n);
+            }
+        } else {
+            n.right = insert(n.right, x);
+            if (n.right.priority > n.priority) {
+                n = rotateLeft(n);
+            }
+        }
+        update(n);
+        return n;
+    }
+
+    private static Node delete(Node n, int id, long start) {
+        if (n == null) {
+            return null;
+        }
+        int c = compare(start, id, n);
+        if (c < 0) {
+            n.left = delete(n.left, id, start);
+        } else if (c > 0) {
+            n.right = delete(n.right, id, start);
+        } else {
+            n = merge(n.left, n.right);
+        }
+        if (n != null) {
+            update(n);
+        }
+        return n;
+    }
+
+    // Joins two treaps where every key in a is below every key in b.
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            update(a);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        update(b);
+        return b;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        update(n);
+        update(l);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        update(n);
+        update(r);
+        return r;
+    }
+
+    private static void update(Node n) {
+        long max = n.end;
+        if (n.left != null) {
+            max = Math.max(max, n.left.maxEnd);
+        }
+        if (n.right != null) {
+            max = Math.max(max, n.right.maxEnd);
+        }
+        n.maxEnd = max;
+    }
+}
@@ -0,0 +1,45 @@
+package atlas;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Starts a Flight Recorder recording from inside Atlas, so a user can
+ * capture a profile without knowing the JVM's {@code -XX} options. The
+ * recording uses the JDK's "profile" settings (GC pauses, thread stalls,
+ * file I/O and so on) plus Atlas's own {@link CommandEvent} and
+ * {@link StorageEvent}, and is written to its file when Atlas exits.
+ */
+final class FlightRecording {
+    private static final String SETTINGS = "profile";
+    private static final String NAME = "atlas";
+
+    private FlightRecording() {
+    }
+
+    /**
+     * Starts recording, to be written to the given file on exit.
+     *
+     * @param file file to write the recording to, usually ending in {@code .jfr}
+     * @return true if the recording started
+     */
+    static boolean start(Path file) {
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration(SETTINGS));
+            recording.setName(NAME);
+            recording.enable(CommandEvent.class);
+            recording.enable(StorageEvent.class);
+            recording.setDestination(file);
+            recording.setDumpOnExit(true);
+            recording.start();
+            return true;
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            System.err.println("Couldn't start a flight recording: " + e.getMessage());
+            return false;
+        }
+    }
+}
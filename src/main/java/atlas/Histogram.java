@@ -0,0 +1,89 @@
+package atlas;
+
+/**
+ * Counts non-negative values, such as latencies in nanoseconds or byte
+ * counts, in buckets whose width grows with the value, as HDR histograms
+ * do. Each power of two is split into eight buckets, so a percentile read
+ * back is within about 12% of the true value whatever its size, and
+ * recording a value is a few shifts and an array increment.
+ * <p>
+ * Not thread-safe; {@link Metrics} guards its histograms.
+ */
+class Histogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Values below SUB_BUCKETS get a bucket each; then each power of two up to 2^62 gets SUB_BUCKETS.
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * Adds one value.
+     *
+     * @param value value to count; negative values count as zero
+     */
+    void record(long value) {
+        long v = Math.max(value, 0);
+        counts[bucketOf(v)]++;
+        count++;
+        sum += v;
+        max = Math.max(max, v);
+    }
+
+    long count() {
+        return count;
+    }
+
+    long sum() {
+        return sum;
+    }
+
+    long max() {
+        return max;
+    }
+
+    /**
+     * Returns the value that the given fraction of recorded values are at
+     * or below, rounded up to the top of its bucket.
+     *
+     * @param fraction fraction between 0 (exclusive) and 1 (inclusive), e.g. 0.99
+     * @return the percentile value, or 0 if nothing has been recorded
+     */
+    long valueAt(double fraction) {
+        assert fraction > 0 && fraction <= 1 : "fraction must be in (0, 1]";
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    static int bucketOf(long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(v); // at least SUB_BUCKET_BITS
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int sub = (int) (v >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,84 @@
+package atlas;
+
+import java.util.BitSet;
+
+/**
+ * Text form of a set of task numbers, such as {@code 1,4,9-20}: numbers and
+ * inclusive ranges separated by commas. Used both for what the user types and
+ * for the journal records of bulk changes.
+ */
+class IndexRanges {
+    private static final char SEPARATOR = ',';
+    private static final char RANGE = '-';
+
+    private IndexRanges() {
+    }
+
+    /**
+     * Returns whether {@code text} is more than a single number: a list or a
+     * range. A leading minus sign on its own is not a range.
+     */
+    static boolean isRangeList(String text) {
+        return text.indexOf(SEPARATOR) >= 0 || text.indexOf(RANGE) > 0;
+    }
+
+    /**
+     * Parses the text into pairs of inclusive bounds, {@code lo, hi, lo, hi...},
+     * in the order written. A reversed range is turned around.
+     *
+     * @return the bounds, or {@code null} if the text is malformed
+     */
+    static IntList parse(String text) {
+        IntList bounds = new IntList();
+        int start = 0;
+        while (start <= text.length()) {
+            int end = text.indexOf(SEPARATOR, start);
+            if (end < 0) {
+                end = text.length();
+            }
+            String part = text.substring(start, end).trim();
+            int dash = part.indexOf(RANGE, 1);
+            try {
+                int lo = Integer.parseInt(dash < 0 ? part : part.substring(0, dash).trim());
+                int hi = dash < 0 ? lo : Integer.parseInt(part.substring(dash + 1).trim());
+                bounds.add(Math.min(lo, hi));
+                bounds.add(Math.max(lo, hi));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            start = end + 1;
+        }
+        return bounds;
+    }
+
+    /**
+     * Collects the numbers named by {@code bounds} into a set, shifted by
+     * {@code offset}. The bounds must already be checked to be in range.
+     */
+    static BitSet toSet(IntList bounds, int offset) {
+        BitSet out = new BitSet();
+        for (int i = 0; i < bounds.size(); i += 2) {
+            out.set(bounds.get(i) + offset, bounds.get(i + 1) + offset + 1);
+        }
+        return out;
+    }
+
+    /**
+     * Formats a set of numbers compactly, with runs written as ranges.
+     */
+    static String format(BitSet numbers) {
+        StringBuilder sb = new StringBuilder();
+        for (int lo = numbers.nextSetBit(0); lo >= 0; lo = numbers.nextSetBit(lo)) {
+            int hi = numbers.nextClearBit(lo) - 1;
+            if (sb.length() > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(lo);
+            if (hi > lo) {
+                sb.append(RANGE).append(hi);
+            }
+            lo = hi + 1;
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package atlas;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of {@code int}s, used by the task indexes to hold task ids
+ * without boxing. Most callers keep it sorted in ascending order and use the
+ * {@code *Sorted} lookups.
+ */
+class IntList {
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] data;
+    private int size;
+
+    IntList() {
+        this.data = new int[INITIAL_CAPACITY];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int get(int i) {
+        assert i >= 0 && i < size : "IntList index out of range";
+        return data[i];
+    }
+
+    int last() {
+        assert size > 0 : "IntList is empty";
+        return data[size - 1];
+    }
+
+    void add(int value) {
+        if (size == data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        data[size++] = value;
+    }
+
+    /**
+     * Inserts {@code value} into this (sorted) list, keeping it sorted.
+     */
+    void insertSorted(int value) {
+        int i = indexOfSorted(value);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        add(value);
+        System.arraycopy(data, i, data, i + 1, size - i - 1);
+        data[i] = value;
+    }
+
+    int removeAt(int i) {
+        assert i >= 0 && i < size : "IntList index out of range";
+        int value = data[i];
+        System.arraycopy(data, i + 1, data, i, size - i - 1);
+        size--;
+        return value;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the position of {@code value} in this (sorted) list, or a
+     * negative number if it is absent, as {@link Arrays#binarySearch(int[], int)}.
+     */
+    int indexOfSorted(int value) {
+        return Arrays.binarySearch(data, 0, size, value);
+    }
+
+    boolean containsSorted(int value) {
+        return indexOfSorted(value) >= 0;
+    }
+
+    boolean removeSorted(int value) {
+        int i = indexOfSorted(value);
+        if (i < 0) {
+            return false;
+        }
+        removeAt(i);
+        return true;
+    }
+
+    IntList copy() {
+        IntList out = new IntList();
+        out.data = Arrays.copyOf(data, Math.max(size, INITIAL_CAPACITY));
+        out.size = size;
+        return out;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+}
@@ -0,0 +1,287 @@
+package atlas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from words in task descriptions to the ids of the tasks
+ * that contain them.
+ * <p>
+ * Descriptions are case-folded and split into words made of letters and
+ * digits. Each posting list holds task ids in ascending order, which is also
+ * list order, so results come out in the order the tasks appear in the list.
+ * <p>
+ * Substring searches go through a second index from the three-letter
+ * sequences (trigrams) of each distinct word to the words containing them,
+ * so only words sharing the keyword's rarest trigram are tested. Words are
+ * known there by small numbers, reused once a word leaves the index, to keep
+ * each entry to one int.
+ */
+class KeywordIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    /**
+     * The tasks containing one distinct word, and the number the word is
+     * known by in the trigram index.
+     */
+    private static final class Word {
+        final int number;
+        final IntList ids = new IntList();
+
+        Word(int number) {
+            this.number = number;
+        }
+    }
+
+    private final HashMap<String, Word> postings = new HashMap<>();
+    private final ArrayList<String> vocabulary = new ArrayList<>(); // words by number; null if unused
+    private final IntList freeNumbers = new IntList();
+    private final HashMap<String, IntList> grams = new HashMap<>(); // trigram to sorted word numbers
+    private final IntList shortWords = new IntList(); // sorted numbers of words without a trigram
+
+    /**
+     * Indexes the description of a newly added task. Ids must be added in
+     * ascending order.
+     */
+    void add(int id, String description) {
+        for (String word : tokenize(description)) {
+            IntList ids = postings.computeIfAbsent(word, this::newWord).ids;
+            assert ids.isEmpty() || ids.last() < id : "ids must be added in ascending order";
+            ids.add(id);
+        }
+    }
+
+    void remove(int id, String description) {
+        for (String word : tokenize(description)) {
+            Word w = postings.get(word);
+            if (w != null) {
+                w.ids.removeSorted(id);
+                if (w.ids.isEmpty()) {
+                    postings.remove(word);
+                    dropWord(word, w.number);
+                }
+            }
+        }
+    }
+
+    // Numbers a word that is new to the index and files it under its trigrams.
+    private Word newWord(String word) {
+        int number;
+        if (freeNumbers.isEmpty()) {
+            number = vocabulary.size();
+            vocabulary.add(word);
+        } else {
+            number = freeNumbers.removeAt(freeNumbers.size() - 1);
+            vocabulary.set(number, word);
+        }
+        Set<String> wordGrams = gramsOf(word);
+        if (wordGrams.isEmpty()) {
+            shortWords.insertSorted(number);
+        }
+        for (String gram : wordGrams) {
+            grams.computeIfAbsent(gram, g -> new IntList()).insertSorted(number);
+        }
+        return new Word(number);
+    }
+
+    private void dropWord(String word, int number) {
+        Set<String> wordGrams = gramsOf(word);
+        if (wordGrams.isEmpty()) {
+            shortWords.removeSorted(number);
+        }
+        for (String gram : wordGrams) {
+            IntList numbers = grams.get(gram);
+            numbers.removeSorted(number);
+            if (numbers.isEmpty()) {
+                grams.remove(gram);
+            }
+        }
+        vocabulary.set(number, null);
+        freeNumbers.add(number);
+    }
+
+    /**
+     * Returns the ids of tasks whose description contains {@code keyword} as a
+     * (case-insensitive) substring, or {@code null} if the keyword spans
+     * several words and the caller has to scan instead.
+     * <p>
+     * A keyword made only of letters and digits can only occur inside a single
+     * word. With three or more letters, only the words sharing its rarest
+     * trigram are tested. A shorter keyword is looked for among the trigrams
+     * themselves, whose number is bounded by the alphabet rather than the list,
+     * and among the few words too short to have one.
+     */
+    int[] containing(String keyword) {
+        String k = keyword.toLowerCase();
+        if (k.isEmpty() || !isWord(k)) {
+            return null;
+        }
+        List<IntList> hits = new ArrayList<>();
+        if (k.length() >= GRAM_LENGTH) {
+            IntList candidates = rarestGramOf(k);
+            for (int i = 0; candidates != null && i < candidates.size(); i++) {
+                String word = vocabulary.get(candidates.get(i));
+                if (word.contains(k)) {
+                    hits.add(postings.get(word).ids);
+                }
+            }
+        } else {
+            BitSet seen = new BitSet();
+            for (Map.Entry<String, IntList> entry : grams.entrySet()) {
+                if (entry.getKey().contains(k)) {
+                    addUnseen(hits, entry.getValue(), seen);
+                }
+            }
+            for (int i = 0; i < shortWords.size(); i++) {
+                String word = vocabulary.get(shortWords.get(i));
+                if (word.contains(k)) {
+                    hits.add(postings.get(word).ids);
+                }
+            }
+        }
+        return union(hits);
+    }
+
+    // Returns the numbers of the words with the keyword's least common trigram, or null if one is missing.
+    private IntList rarestGramOf(String keyword) {
+        IntList rarest = null;
+        for (String gram : gramsOf(keyword)) {
+            IntList numbers = grams.get(gram);
+            if (numbers == null) {
+                return null;
+            }
+            if (rarest == null || numbers.size() < rarest.size()) {
+                rarest = numbers;
+            }
+        }
+        return rarest;
+    }
+
+    // Every word under a trigram containing the keyword contains it too.
+    private void addUnseen(List<IntList> hits, IntList numbers, BitSet seen) {
+        for (int i = 0; i < numbers.size(); i++) {
+            int number = numbers.get(i);
+            if (!seen.get(number)) {
+                seen.set(number);
+                hits.add(postings.get(vocabulary.get(number)).ids);
+            }
+        }
+    }
+
+    /**
+     * Returns the ids of tasks whose description contains every word in {@code words}.
+     */
+    int[] matchingAll(String words) {
+        Set<String> query = tokenize(words);
+        if (query.isEmpty()) {
+            return new int[0];
+        }
+        List<IntList> lists = new ArrayList<>();
+        for (String word : query) {
+            Word w = postings.get(word);
+            if (w == null) {
+                return new int[0];
+            }
+            lists.add(w.ids);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+        // Walk the shortest list and probe the others.
+        IntList shortest = lists.get(0);
+        IntList out = new IntList();
+        for (int i = 0; i < shortest.size(); i++) {
+            int id = shortest.get(i);
+            boolean isInAll = true;
+            for (int j = 1; j < lists.size() && isInAll; j++) {
+                isInAll = lists.get(j).containsSorted(id);
+            }
+            if (isInAll) {
+                out.add(id);
+            }
+        }
+        return out.toArray();
+    }
+
+    /**
+     * Returns the ids of tasks whose description contains at least one word in {@code words}.
+     */
+    int[] matchingAny(String words) {
+        List<IntList> lists = new ArrayList<>();
+        for (String word : tokenize(words)) {
+            Word w = postings.get(word);
+            if (w != null) {
+                lists.add(w.ids);
+            }
+        }
+        return union(lists);
+    }
+
+    /**
+     * Splits text into distinct lower-case words of letters and digits.
+     */
+    static Set<String> tokenize(String text) {
+        String lower = text.toLowerCase();
+        Set<String> words = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean isWordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    // Distinct three-letter sequences in a word; none if it is shorter.
+    private static Set<String> gramsOf(String word) {
+        Set<String> out = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= word.length(); i++) {
+            out.add(word.substring(i, i + GRAM_LENGTH));
+        }
+        return out;
+    }
+
+    private static boolean isWord(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (!Character.isLetterOrDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Sorted, de-duplicated union of several ascending id lists.
+    private static int[] union(List<IntList> lists) {
+        int total = 0;
+        for (IntList ids : lists) {
+            total += ids.size();
+        }
+        int[] all = new int[total];
+        int n = 0;
+        for (IntList ids : lists) {
+            for (int i = 0; i < ids.size(); i++) {
+                all[n++] = ids.get(i);
+            }
+        }
+        if (lists.size() > 1) {
+            Arrays.sort(all);
+        }
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || all[unique - 1] != all[i]) {
+                all[unique++] = all[i];
+            }
+        }
+        return Arrays.copyOf(all, unique);
+    }
+}
@@ -1,12 +1,40 @@
 package atlas;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
 import javafx.application.Application;
 
 /**
  * A launcher class to workaround classpath issues.
+ * <p>
+ * {@code --batch <file>} runs the commands in the file as one batch without
+ * opening the GUI, exiting with status 1 if any of them fails.
+ * {@code --record <file.jfr>}, given first, records a Flight Recorder
+ * profile of the session to the file, for opening in JDK Mission Control.
  */
 public class Launcher {
+    private static final String BATCH_FLAG = "--batch";
+    private static final String RECORD_FLAG = "--record";
+
     public static void main(String[] args) {
+        if (args.length >= 2 && RECORD_FLAG.equals(args[0])) {
+            FlightRecording.start(Paths.get(args[1]));
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        if (args.length == 2 && BATCH_FLAG.equals(args[0])) {
+            System.exit(runBatch(args[1]) ? 0 : 1);
+        }
         Application.launch(Main.class, args);
     }
+
+    private static boolean runBatch(String file) {
+        try {
+            return new Atlas().runBatch(Paths.get(file));
+        } catch (IOException e) {
+            System.err.println("Couldn't read batch file: " + e.getMessage());
+            return false;
+        }
+    }
 }
@@ -14,6 +14,7 @@ import javafx.stage.Stage;
 public class Main extends Application {
 
     private Atlas atlas = new Atlas();
+    private MainWindow controller;
 
     @Override
     public void start(Stage stage) {
@@ -24,7 +25,8 @@ public class Main extends Application {
             stage.setScene(scene);
             stage.setMinHeight(220);
             stage.setMinWidth(417);
-            fxmlLoader.<MainWindow>getController().setAtlas(atlas);  // inject the Atlas instance
+            controller = fxmlLoader.<MainWindow>getController();
+            controller.setAtlas(atlas);  // inject the Atlas instance
             stage.show();
 
         } catch (IOException e) {
@@ -32,4 +34,11 @@ public class Main extends Application {
         }
 
     }
+
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.shutdown();
+        }
+    }
 }
@@ -1,72 +1,100 @@
 package atlas;
 
+import javafx.animation.PauseTransition;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.application.Platform;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 /**
  * Controller for the main GUI.
  */
 public class MainWindow extends AnchorPane {
+    // Quick commands finish before the indicator would show, so it does not flicker.
+    private static final Duration BUSY_DELAY = Duration.millis(150);
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<Transcript.Entry> transcriptView;
     @FXML
     private TextField userInput;
     @FXML
     private Button sendButton;
+    @FXML
+    private ProgressIndicator busyIndicator;
 
     private Atlas atlas;
-
-    private Image userImage;
-    private Image atlasImage;
+    private CommandRunner runner;
+    private final PauseTransition busyDelay = new PauseTransition(BUSY_DELAY);
+    private final ObservableList<Transcript.Entry> messages = FXCollections.observableArrayList();
+    private final Transcript transcript = new Transcript(messages, Config.historyLimit(), Config.historyFile());
 
     @FXML
     public void initialize() {
-
-        try {
-            userImage = new Image(getClass().getResourceAsStream("/images/DaUser.png"));
-            atlasImage = new Image(getClass().getResourceAsStream("/images/DaDuke.png"));
-        } catch (Exception e) {
-            System.err.println("Failed to load images: " + e.getMessage());
-            // You could set default images or handle this gracefully
-        }
-
-        dialogContainer.heightProperty().addListener((observable, oldValue, newValue) -> {
-            scrollPane.setVvalue(1.0);
-        });
+        // Only the visible messages get cells, so a long conversation costs no more to draw.
+        transcriptView.setItems(messages);
+        Image userImage = DialogFactory.userImage();
+        Image atlasImage = DialogFactory.atlasImage();
+        transcriptView.setCellFactory(list -> new MessageCell(userImage, atlasImage));
+        busyDelay.setOnFinished(event -> busyIndicator.setVisible(runner != null && runner.isBusy()));
     }
 
     /** Injects the Duke instance */
     public void setAtlas(Atlas a) {
         atlas = a;
+        runner = new CommandRunner(a, Platform::runLater);
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Duke's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Waits briefly for commands that are still running, so their changes are saved.
+     */
+    public void shutdown() {
+        if (runner != null) {
+            runner.shutdown();
+        }
+    }
+
+    /**
+     * Echoes the user input in the conversation and runs it in the
+     * background. Duke's reply is added below the echo once the command
+     * finishes, and a busy indicator is shown while it takes long. Clears
+     * the user input straight away, so the next command can be typed while
+     * this one runs.
      */
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = atlas.getResponse(input);
-        String commandType = atlas.getCommandType();
-        var userDb = DialogBox.getUserDialog(input, userImage);
-        var dukeDb = DialogBox.getDukeDialog(response, atlasImage);
-        if (commandType != null) {
-            dukeDb.changeDialogStyle(commandType);
-        }
-        dialogContainer.getChildren().addAll(userDb, dukeDb);
+        Transcript.Entry command = Transcript.Entry.user(input);
+        transcript.add(command);
+        scrollToEnd();
         userInput.clear();
 
-        if ("bye".equals(input.trim())) {
+        busyDelay.playFromStart();
+        runner.submit(input, reply -> showReply(reply, command));
+    }
+
+    // Runs on the FX thread, in the order the commands were submitted.
+    private void showReply(CommandRunner.Reply reply, Transcript.Entry command) {
+        // Later commands may already be echoed, so the reply goes right after its own.
+        transcript.addAfter(command, Transcript.Entry.reply(reply.response, reply.commandType));
+        scrollToEnd();
+
+        if (!runner.isBusy()) {
+            busyDelay.stop();
+            busyIndicator.setVisible(false);
+        }
+        if ("bye".equals(reply.input.trim())) {
             Platform.exit();
         }
     }
 
+    private void scrollToEnd() {
+        transcriptView.scrollTo(messages.size() - 1);
+    }
+
 }
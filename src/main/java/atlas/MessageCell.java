@@ -0,0 +1,39 @@
+package atlas;
+
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.image.Image;
+
+/**
+ * List cell that shows one message of the conversation in a dialog box.
+ * The list view only creates enough cells to fill the window and moves
+ * them around as it scrolls, so each cell keeps its dialog box and fills
+ * it in again for whichever message it is showing.
+ */
+class MessageCell extends ListCell<Transcript.Entry> {
+    private final Image userImage;
+    private final Image atlasImage;
+    private DialogBox box; // created when first needed
+
+    MessageCell(Image userImage, Image atlasImage) {
+        this.userImage = userImage;
+        this.atlasImage = atlasImage;
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        // Lets wrapped text follow the list's width instead of widening the cell.
+        setPrefWidth(0);
+    }
+
+    @Override
+    protected void updateItem(Transcript.Entry entry, boolean isEmpty) {
+        super.updateItem(entry, isEmpty);
+        if (isEmpty || entry == null) {
+            setGraphic(null);
+            return;
+        }
+        if (box == null) {
+            box = DialogFactory.create();
+        }
+        box.setMessage(entry.text, entry.isUser ? userImage : atlasImage, !entry.isUser, entry.commandType);
+        setGraphic(box);
+    }
+}
@@ -0,0 +1,207 @@
+package atlas;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts commands and times each {@link Phase} they go through, per command
+ * word, along with the time and bytes of every write to the save file.
+ * <p>
+ * Metrics are off unless {@code -Datlas.metrics=true} (or a dump file) is
+ * given. When off, {@link #now()} does not read the clock and every
+ * {@code record} method returns straight away, so instrumented code costs
+ * no more than a field check. Recording is synchronized, as saves may be
+ * written by a background thread.
+ */
+final class Metrics {
+    /** Does nothing; used when metrics are switched off. */
+    static final Metrics DISABLED = new Metrics(false);
+
+    private static final Metrics GLOBAL = createGlobal();
+
+    private static final String HEADER = "Command stats (times in microseconds):";
+    private static final String NO_COMMANDS_MESSAGE = "No commands have run yet.";
+    private static final String COMMAND_LINE = "%s: %d run, %d failed%n";
+    private static final String LATENCY_LINE = "  %-8s p50 %9.1f  p99 %9.1f  p999 %9.1f  max %9.1f%n";
+    private static final String SAVES_LINE = "Saves: %d, %d bytes written, %d bytes per save%n";
+    private static final String BYTES_LINE = "  %-8s p50 %9d  p99 %9d  p999 %9d  max %9d%n";
+    private static final double NANOS_PER_MICRO = 1_000.0;
+
+    /**
+     * The stages a command goes through in {@link Dispatcher}.
+     */
+    enum Phase {
+        PARSE, EXECUTE, RENDER, PERSIST;
+
+        String label() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Counts and timings for one command word.
+     */
+    private static final class CommandStats {
+        final Histogram total = new Histogram();
+        final Map<Phase, Histogram> phases = new EnumMap<>(Phase.class);
+        long errors;
+
+        CommandStats() {
+            for (Phase p : Phase.values()) {
+                phases.put(p, new Histogram());
+            }
+        }
+    }
+
+    private final boolean isEnabled;
+    private final Map<String, CommandStats> commands = new TreeMap<>();
+    private final Histogram saveTimes = new Histogram();
+    private final Histogram saveBytes = new Histogram();
+
+    Metrics(boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+
+    /**
+     * Returns the metrics shared by the default dispatcher and storage,
+     * switched on or off by {@link Config#isMetricsEnabled()}. If a dump file
+     * is configured, the metrics are written to it when the JVM exits.
+     */
+    static Metrics global() {
+        return GLOBAL;
+    }
+
+    private static Metrics createGlobal() {
+        if (!Config.isMetricsEnabled()) {
+            return DISABLED;
+        }
+        Metrics metrics = new Metrics(true);
+        Path file = Config.metricsFile();
+        if (file != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    metrics.dumpTo(file);
+                } catch (IOException e) {
+                    System.err.println("Failed to write metrics to " + file + ": " + e.getMessage());
+                }
+            }, "atlas-metrics-dump"));
+        }
+        return metrics;
+    }
+
+    boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Returns the current time for the {@code record} methods to measure
+     * from, or 0 without reading the clock when metrics are off.
+     */
+    long now() {
+        return isEnabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the time a command spent in one phase.
+     *
+     * @param command command word
+     * @param phase   phase that just finished
+     * @param start   when the phase started, from {@link #now()} or an earlier {@code record}
+     * @return the time now, which is when the next phase starts
+     */
+    long record(String command, Phase phase, long start) {
+        if (!isEnabled) {
+            return 0;
+        }
+        long end = System.nanoTime();
+        synchronized (this) {
+            stats(command).phases.get(phase).record(end - start);
+        }
+        return end;
+    }
+
+    /**
+     * Records one finished command, counting it as failed if it reported an error.
+     *
+     * @param command  command word
+     * @param start    when the command started, from {@link #now()}
+     * @param isFailed whether the command ended with an error
+     */
+    void recordCommand(String command, long start, boolean isFailed) {
+        if (!isEnabled) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        synchronized (this) {
+            CommandStats s = stats(command);
+            s.total.record(elapsed);
+            if (isFailed) {
+                s.errors++;
+            }
+        }
+    }
+
+    /**
+     * Records one write to the save file or journal.
+     *
+     * @param bytes bytes written
+     * @param start when the write started, from {@link #now()}
+     */
+    void recordSave(long bytes, long start) {
+        if (!isEnabled) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        synchronized (this) {
+            saveTimes.record(elapsed);
+            saveBytes.record(bytes);
+        }
+    }
+
+    private CommandStats stats(String command) {
+        return commands.computeIfAbsent(command, c -> new CommandStats());
+    }
+
+    /**
+     * Returns a readable summary of everything recorded so far.
+     */
+    synchronized String format() {
+        if (commands.isEmpty() && saveTimes.count() == 0) {
+            return NO_COMMANDS_MESSAGE;
+        }
+        StringBuilder sb = new StringBuilder(HEADER).append(System.lineSeparator());
+        commands.forEach((command, s) -> {
+            sb.append(String.format(COMMAND_LINE, command, s.total.count(), s.errors));
+            appendLatency(sb, "total", s.total);
+            s.phases.forEach((phase, h) -> appendLatency(sb, phase.label(), h));
+        });
+        long saves = saveBytes.count();
+        sb.append(String.format(SAVES_LINE, saves, saveBytes.sum(), saves == 0 ? 0 : saveBytes.sum() / saves));
+        appendLatency(sb, "time", saveTimes);
+        sb.append(String.format(BYTES_LINE, "bytes", saveBytes.valueAt(0.50), saveBytes.valueAt(0.99),
+                saveBytes.valueAt(0.999), saveBytes.max()));
+        return sb.toString().stripTrailing();
+    }
+
+    private static void appendLatency(StringBuilder sb, String label, Histogram h) {
+        sb.append(String.format(LATENCY_LINE, label, h.valueAt(0.50) / NANOS_PER_MICRO,
+                h.valueAt(0.99) / NANOS_PER_MICRO, h.valueAt(0.999) / NANOS_PER_MICRO, h.max() / NANOS_PER_MICRO));
+    }
+
+    /**
+     * Writes the summary to a file, replacing it if it exists.
+     *
+     * @param file file to write
+     * @throws IOException if the file cannot be written
+     */
+    void dumpTo(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, format() + System.lineSeparator());
+    }
+}
@@ -0,0 +1,302 @@
+package atlas;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * List of tasks backed by a binary save file, decoding tasks only when they
+ * are read.
+ * <p>
+ * Opening the list costs the same however large the file is: only the
+ * header is read, and records are found through the file's offset table.
+ * Tasks are decoded a page at a time, and the most recently used pages are
+ * kept in a bounded cache. Changes are held in memory on top of the file:
+ * tasks that were replaced (for example after being marked done) are pinned
+ * in an overlay, new tasks are appended after the file's records, and
+ * removed records are skipped. Once too many records have been removed for
+ * skipping to stay cheap, the list decodes everything and carries on as an
+ * ordinary in-memory list.
+ * <p>
+ * The file must not be modified in place while the list is open. The file
+ * stays mapped until the list is garbage collected, so
+ * {@link Storage#loadLazily(int)} maps a private copy of the save file, which
+ * saves can then replace even where mapped files cannot be.
+ * <p>
+ * Changes need outside locking, as for any list, but reads may come from
+ * several threads at once: the page cache reorders itself on every read,
+ * so it is guarded by its own lock.
+ */
+class PagedTaskList extends AbstractList<Task> implements RandomAccess {
+    static final int PAGE_SIZE = 256;
+    private static final int MAX_SKIPPED_RECORDS = 1024;
+    private static final String UNREADABLE_DESCRIPTION = "(unreadable task)";
+    private static final String UNREADABLE_SAVE_ERROR =
+            "Task %d could not be read from the save file. Delete it to save again.";
+
+    private final BinaryFormat.Reader reader;
+    private final int maxPages;
+    private final LinkedHashMap<Integer, Task[]> pages;
+    private final HashMap<Integer, Task> replaced;
+    private final IntList removed; // record indexes, sorted
+    private final ArrayList<Task> appended;
+    private List<Task> materialized;
+
+    /**
+     * Creates a list over the records of the given reader.
+     *
+     * @param reader   reader over the save file
+     * @param maxPages number of decoded pages to keep cached
+     */
+    PagedTaskList(BinaryFormat.Reader reader, int maxPages) {
+        this(reader, maxPages, new HashMap<>(), new IntList(), new ArrayList<>());
+    }
+
+    private PagedTaskList(BinaryFormat.Reader reader, int maxPages, HashMap<Integer, Task> replaced,
+            IntList removed, ArrayList<Task> appended) {
+        assert reader != null : "reader must not be null";
+        assert maxPages > 0 : "cache must hold at least one page";
+        this.reader = reader;
+        this.maxPages = maxPages;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Task[]> eldest) {
+                return size() > PagedTaskList.this.maxPages;
+            }
+        };
+        this.replaced = replaced;
+        this.removed = removed;
+        this.appended = appended;
+    }
+
+    /**
+     * Returns an independent list with the same contents, sharing the file
+     * and the task objects but not the cache or later changes.
+     */
+    PagedTaskList copy() {
+        PagedTaskList out = new PagedTaskList(reader, maxPages, new HashMap<>(replaced),
+                removed.copy(), new ArrayList<>(appended));
+        if (materialized != null) {
+            out.materialized = new ArrayList<>(materialized);
+        }
+        return out;
+    }
+
+    /**
+     * Returns a copy of the list that can be changed independently: a
+     * {@link #copy()} for paged and compact lists, or an {@link ArrayList}
+     * otherwise.
+     */
+    static List<Task> copyOf(List<Task> tasks) {
+        if (tasks instanceof PagedTaskList) {
+            return ((PagedTaskList) tasks).copy();
+        }
+        if (tasks instanceof CompactTaskList) {
+            return ((CompactTaskList) tasks).copy();
+        }
+        return new ArrayList<>(tasks);
+    }
+
+    @Override
+    public int size() {
+        if (materialized != null) {
+            return materialized.size();
+        }
+        return reader.size() - removed.size() + appended.size();
+    }
+
+    @Override
+    public Task get(int idx) {
+        if (materialized != null) {
+            return materialized.get(idx);
+        }
+        int stored = storedSize();
+        if (idx >= stored) {
+            return appended.get(idx - stored);
+        }
+        if (idx < 0) {
+            throw new IndexOutOfBoundsException("Index: " + idx);
+        }
+        return record(toRecord(idx));
+    }
+
+    @Override
+    public Task set(int idx, Task t) {
+        assert t != null : "task must not be null";
+        if (materialized != null) {
+            return materialized.set(idx, t);
+        }
+        int stored = storedSize();
+        if (idx >= stored) {
+            return appended.set(idx - stored, t);
+        }
+        Task old = get(idx);
+        int record = toRecord(idx);
+        replaced.put(record, t);
+        synchronized (pages) {
+            Task[] page = pages.get(record / PAGE_SIZE);
+            if (page != null) {
+                page[record % PAGE_SIZE] = t;
+            }
+        }
+        return old;
+    }
+
+    @Override
+    public void add(int idx, Task t) {
+        assert t != null : "task must not be null";
+        if (materialized == null && idx != size()) {
+            materialize();
+        }
+        if (materialized != null) {
+            materialized.add(idx, t);
+        } else {
+            appended.add(t);
+        }
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int idx) {
+        if (materialized == null && idx < storedSize() && removed.size() >= MAX_SKIPPED_RECORDS) {
+            materialize();
+        }
+        Task old;
+        if (materialized != null) {
+            old = materialized.remove(idx);
+        } else if (idx >= storedSize()) {
+            old = appended.remove(idx - storedSize());
+        } else {
+            old = get(idx);
+            int record = toRecord(idx);
+            removed.insertSorted(record);
+            replaced.remove(record);
+        }
+        modCount++;
+        return old;
+    }
+
+    /**
+     * Removes the tasks at the given indexes in one go. Removed records are
+     * only noted as skipped, as for {@link #remove(int)}, so nothing after
+     * them is decoded or moved.
+     *
+     * @param indexes zero-based indexes to remove, all within the list
+     */
+    void removeAll(BitSet indexes) {
+        assert indexes.length() <= size() : "index out of range";
+        int stored = storedSize();
+        int storedCount = indexes.get(0, stored).cardinality();
+        if (materialized == null && storedCount > 0 && removed.size() + storedCount > MAX_SKIPPED_RECORDS) {
+            materialize();
+        }
+        if (materialized != null) {
+            TaskList.removeAll(materialized, indexes);
+        } else {
+            TaskList.removeAll(appended, indexes.get(stored, stored + appended.size()));
+            // Every position is mapped before any record is skipped, so they all refer to the same list.
+            IntList records = new IntList();
+            for (int idx = indexes.nextSetBit(0); idx >= 0 && idx < stored; idx = indexes.nextSetBit(idx + 1)) {
+                records.add(toRecord(idx));
+            }
+            for (int i = 0; i < records.size(); i++) {
+                removed.insertSorted(records.get(i));
+                replaced.remove(records.get(i));
+            }
+        }
+        modCount++;
+    }
+
+    private int storedSize() {
+        return reader.size() - removed.size();
+    }
+
+    // Maps a position among the remaining records to a record index by
+    // stepping over the removed records that come before it.
+    private int toRecord(int idx) {
+        int record = idx;
+        for (int i = 0; i < removed.size() && removed.get(i) <= record; i++) {
+            record++;
+        }
+        return record;
+    }
+
+    private Task record(int record) {
+        Task t = replaced.get(record);
+        if (t != null) {
+            return t;
+        }
+        synchronized (pages) {
+            Task[] page = pages.computeIfAbsent(record / PAGE_SIZE, this::decodePage);
+            return page[record % PAGE_SIZE];
+        }
+    }
+
+    private Task[] decodePage(int pageNumber) {
+        int first = pageNumber * PAGE_SIZE;
+        Task[] page = new Task[Math.min(PAGE_SIZE, reader.size() - first)];
+        for (int i = 0; i < page.length; i++) {
+            Task t = replaced.get(first + i);
+            if (t == null) {
+                t = reader.get(first + i);
+            }
+            // Records are only found to be damaged when they are read, by which
+            // time their position is already fixed, so they are kept as placeholders.
+            page[i] = t != null ? t : new Unreadable();
+        }
+        return page;
+    }
+
+    private void materialize() {
+        List<Task> all = new ArrayList<>(size() + 1);
+        for (int i = 0; i < size(); i++) {
+            all.add(get(i));
+        }
+        materialized = all;
+        synchronized (pages) {
+            pages.clear();
+        }
+        replaced.clear();
+        removed.clear();
+        appended.clear();
+    }
+
+    /**
+     * Checks that a task about to be saved is not a placeholder for a damaged
+     * record. Saving one would replace the record with a made-up task, so
+     * saves are refused until the user deletes it.
+     *
+     * @param t   task about to be saved
+     * @param idx zero-based position of the task in the list
+     * @throws UnreadableTaskException if {@code t} is a placeholder
+     */
+    static void checkReadable(Task t, int idx) throws UnreadableTaskException {
+        if (t instanceof Unreadable) {
+            throw new UnreadableTaskException(String.format(UNREADABLE_SAVE_ERROR, idx + 1));
+        }
+    }
+
+    // Stands in for a damaged record. Marking it copies it, so the copy is a placeholder too.
+    private static final class Unreadable extends Todo {
+        Unreadable() {
+            super(UNREADABLE_DESCRIPTION);
+        }
+    }
+
+    /**
+     * Thrown when a save meets a placeholder for a damaged record.
+     */
+    static class UnreadableTaskException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        UnreadableTaskException(String message) {
+            super(message);
+        }
+    }
+}
@@ -1,38 +1,71 @@
 package atlas;
 
-import java.io.IOException;
+import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
- * Parses user input lines and performs the requested actions by
- * mutating the TaskList, talking to Storage, and using Ui
- * to show messages.
+ * Parses user input lines into {@link Command} objects and runs them
+ * through a {@link Dispatcher}, which mutates the TaskList, talks to
+ * Storage, and uses Ui to show messages.
+ * <p>
+ * Every command word is registered in a {@link CommandRegistry}. Parsing
+ * checks everything that can be checked from the input alone; checks that
+ * depend on the list happen when the command runs.
  */
 public class Parser {
     
     // Named constants for magic numbers and string literals
-    private static final int COMMAND_INDEX = 0;
-    private static final int ARGUMENT_INDEX = 1;
-    private static final int USER_DISPLAY_OFFSET = 1; // Convert 0-based to 1-based indexing
-    
-    private static final int BYE_LENGTH = 5; // "/by ".length()
-    private static final int FROM_LENGTH = 7; // " /from ".length()
-    private static final int TO_LENGTH = 5;   // " /to ".length()
+    private static final String FIND_ALL_FLAG = "--all";
+    private static final String FIND_ANY_FLAG = "--any";
+    private static final Pattern PAGE_FLAG = Pattern.compile("(?:^|\\s+)--(page|size)\\s+(\\S+)\\s*$");
+    private static final String PAGE_OPTION = "page";
+    private static final String DONE_SELECTOR = "done";
     
     // Error message constants
     private static final String TASK_NUMBER_ERROR = "Task number must be a positive integer.";
-    private static final String TASK_OUT_OF_RANGE_ERROR = "Task %s is out of range (1..%d).";
-    private static final String UNKNOWN_COMMAND_ERROR = "I don't recognise that command: '%s'.";
     private static final String MISSING_BY_ERROR = "Missing '/by'. Try: deadline return book /by 2019-10-15";
     private static final String MISSING_FROM_TO_ERROR = "Missing '/from' or '/to'. Try: event meeting /from Mon 2pm /to 4pm";
     private static final String INVALID_DATE_ERROR = "Invalid date. Use yyyy-MM-dd (e.g. 2019-10-15).";
     private static final String DESCRIPTION_REQUIRED_ERROR = "Description and ISO date (yyyy-MM-dd) must be provided.";
     private static final String EVENT_DESCRIPTION_REQUIRED_ERROR = "Description, '/from', and '/to' must be provided.";
     private static final String TODO_DESCRIPTION_ERROR = "The description of a todo cannot be empty.\n Try: todo borrow book";
-    private static final String DUPLICATE_TASK_ERROR = "This task already exists in your list!";
+    private static final String FIND_WORDS_USAGE = "Usage: find --all|--any <word> [<word>...]";
+    private static final String PAGE_NUMBER_ERROR = "Page and size must be positive integers, e.g. --page 3 --size 50";
+
+    private static final Dispatcher DISPATCHER = new Dispatcher(defaultRegistry(), Metrics.global());
+
+    /**
+     * Returns a registry holding every built-in command.
+     */
+    static CommandRegistry defaultRegistry() {
+        return new CommandRegistry()
+                .register("bye", line -> new Commands.Bye())
+                .register("begin", line -> new Commands.Begin())
+                .register("commit", line -> new Commands.Commit())
+                .register("rollback", line -> new Commands.Rollback())
+                .register("list", Parser::parseList)
+                .register("mark", line -> parseMark(line, "mark", true))
+                .register("unmark", line -> parseMark(line, "unmark", false))
+                .register("delete", Parser::parseDelete)
+                .register("todo", Parser::parseTodo)
+                .register("deadline", Parser::parseDeadline)
+                .register("event", Parser::parseEvent)
+                .register("find", Parser::parseFind)
+                .register("due", Parser::parseDue)
+                .register("due-between", Parser::parseDueBetween)
+                .register("overdue", Parser::parseOverdue)
+                .register("on", Parser::parseOn)
+                .register("stats", line -> new Commands.ShowStats(Metrics.global()));
+    }
 
     /**
      * Parses a single user input line and executes the command.
+     * <p>
+     * Inside a batch (between {@code begin} and {@code commit}), changes are
+     * saved only when the batch is committed, and a command that fails rolls
+     * the whole batch back before its error is reported.
      *
      * @param input   raw user input
      * @param tasks   task list to operate on
@@ -42,227 +75,261 @@ public class Parser {
      * @throws AtlasException if the input is invalid or arguments are missing
      */
     public static boolean parse(String input, TaskList tasks, Ui ui, Storage storage) throws AtlasException {
-        if (input == null || input.trim().isEmpty()) {
+        if (input == null) {
             return false;
         }
-        
-        String[] parts = input.trim().split("\\s+", 2);
-        String cmd = parts[COMMAND_INDEX];
-        
-        return switch (cmd) {
-            case "bye" -> handleBye(ui);
-            case "list" -> handleList(tasks, ui);
-            case "mark" -> handleMark(parts, tasks, ui, storage);
-            case "unmark" -> handleUnmark(parts, tasks, ui, storage);
-            case "delete" -> handleDelete(parts, tasks, ui, storage);
-            case "todo" -> handleTodo(parts, tasks, ui, storage);
-            case "deadline" -> handleDeadline(parts, tasks, ui, storage);
-            case "event" -> handleEvent(parts, tasks, ui, storage);
-            case "find" -> handleFind(parts, tasks, ui);
-            default -> throw new AtlasException(String.format(UNKNOWN_COMMAND_ERROR, cmd));
-        };
+        return parse(CommandLine.parse(input), tasks, ui, storage);
     }
-    
-    private static boolean handleBye(Ui ui) {
-        ui.showBye();
-        return true;
+
+    /**
+     * Executes a command from input that has already been split, as
+     * {@link #parse(String, TaskList, Ui, Storage)} does.
+     *
+     * @param line    split user input
+     * @param tasks   task list to operate on
+     * @param ui      UI for showing messages to users
+     * @param storage storage for persisting changes
+     * @return true if the user asked to exit (i.e. bye)
+     * @throws AtlasException if the input is invalid or arguments are missing
+     */
+    static boolean parse(CommandLine line, TaskList tasks, Ui ui, Storage storage) throws AtlasException {
+        return DISPATCHER.dispatch(line, tasks, ui, storage);
+    }
+
+    private static Command parseList(CommandLine line) throws AtlasException {
+        // Anything else after "list" is ignored, as it always has been.
+        return new Commands.ListTasks(extractPageParts(line).paging);
     }
     
-    private static boolean handleList(TaskList tasks, Ui ui) {
-        ui.show(tasks.formatList());
-        return false;
+    private static Command parseMark(CommandLine line, String command, boolean isDone) throws AtlasException {
+        if (isSelection(line)) {
+            return new Commands.MarkAll(parseSelection(line, command), isDone);
+        }
+        return new Commands.Mark(line.argument(), parseNumber(line, command), isDone);
     }
     
-    private static boolean handleMark(String[] parts, TaskList tasks, Ui ui, Storage storage) throws AtlasException {
-        int idx = parseIndex(parts, tasks.size(), "mark");
-        tasks.mark(idx);
-        ui.show("Nice! I've marked this task as done:\n " + tasks.get(idx));
-        persist(storage, tasks, ui);
-        return false;
+    private static Command parseDelete(CommandLine line) throws AtlasException {
+        if (isSelection(line)) {
+            return new Commands.DeleteAll(parseSelection(line, "delete"));
+        }
+        return new Commands.Delete(line.argument(), parseNumber(line, "delete"));
     }
     
-    private static boolean handleUnmark(String[] parts, TaskList tasks, Ui ui, Storage storage) throws AtlasException {
-        int idx = parseIndex(parts, tasks.size(), "unmark");
-        tasks.unmark(idx);
-        ui.show("OK, I've marked this task as not done yet:\n " + tasks.get(idx));
-        persist(storage, tasks, ui);
-        return false;
+    private static Command parseTodo(CommandLine line) throws AtlasException {
+        String desc = requireArg(line, TODO_DESCRIPTION_ERROR);
+        return new Commands.Add(() -> new Todo(desc));
     }
     
-    private static boolean handleDelete(String[] parts, TaskList tasks, Ui ui, Storage storage) throws AtlasException {
-        int idx = parseIndex(parts, tasks.size(), "delete");
-        Task removed = tasks.remove(idx);
-        showTaskRemoved(removed, tasks, ui, storage);
-        return false;
+    private static Command parseDeadline(CommandLine line) throws AtlasException {
+        requireArg(line, "Usage: deadline <desc> /by <yyyy-MM-dd>");
+        DeadlineParts deadlineParts = extractDeadlineParts(line);
+        
+        LocalDate by = parseDate(deadlineParts.by);
+        return new Commands.Add(() -> new Deadline(deadlineParts.description, by));
     }
     
-    private static boolean handleTodo(String[] parts, TaskList tasks, Ui ui, Storage storage) throws AtlasException {
-        String desc = requireArg(parts, TODO_DESCRIPTION_ERROR);
-        Todo newTodo = new Todo(desc);
-        if (tasks.contains(newTodo)) {
-            throw new AtlasException(DUPLICATE_TASK_ERROR);
-        }
-        tasks.add(newTodo);
-        showTaskAdded(tasks, ui, storage);
-        return false;
+    private static Command parseEvent(CommandLine line) throws AtlasException {
+        requireArg(line, "Usage: event <desc> /from <start> /to <end>");
+        EventParts eventParts = extractEventParts(line);
+        return new Commands.Add(() -> new Event(eventParts.description, eventParts.from, eventParts.to));
     }
     
-    private static boolean handleDeadline(String[] parts, TaskList tasks, Ui ui, Storage storage) throws AtlasException {
-        String rest = requireArg(parts, "Usage: deadline <desc> /by <yyyy-MM-dd>");
-        DeadlineParts deadlineParts = extractDeadlineParts(rest);
-        validateDeadlineParts(deadlineParts);
-        
-        try {
-            Deadline newDeadline = new Deadline(deadlineParts.description, deadlineParts.by);
-            if (tasks.contains(newDeadline)) {
-                throw new AtlasException(DUPLICATE_TASK_ERROR);
+    private static Command parseFind(CommandLine line) throws AtlasException {
+        PageParts page = extractPageParts(line);
+        String keyword = requireArg(page.rest, "Usage: find <keyword>");
+        CommandLine query = CommandLine.parse(keyword);
+        Commands.Query find = switch (query.command()) {
+            case FIND_ALL_FLAG -> {
+                String words = requireArg(query, FIND_WORDS_USAGE);
+                yield tasks -> tasks.findAll(words);
             }
-            tasks.add(newDeadline);
-        } catch (DateTimeParseException e) {
-            throw new AtlasException(INVALID_DATE_ERROR);
-        }
-        showTaskAdded(tasks, ui, storage);
-        return false;
+            case FIND_ANY_FLAG -> {
+                String words = requireArg(query, FIND_WORDS_USAGE);
+                yield tasks -> tasks.findAny(words);
+            }
+            default -> tasks -> tasks.find(keyword);
+        };
+        return new Commands.ShowMatches(find, page.paging);
     }
     
-    private static boolean handleEvent(String[] parts, TaskList tasks, Ui ui, Storage storage) throws AtlasException {
-        String rest = requireArg(parts, "Usage: event <desc> /from <start> /to <end>");
-        EventParts eventParts = extractEventParts(rest);
-        validateEventParts(eventParts);
-        
-        Event newEvent = new Event(eventParts.description, eventParts.from, eventParts.to);
-        if (tasks.contains(newEvent)) {
-            throw new AtlasException(DUPLICATE_TASK_ERROR);
+    private static Command parseDue(CommandLine line) throws AtlasException {
+        PageParts page = extractPageParts(line);
+        LocalDate date = parseDate(requireArg(page.rest, "Usage: due <yyyy-MM-dd>"));
+        return new Commands.ShowMatches(tasks -> tasks.dueOn(date), page.paging);
+    }
+
+    private static Command parseDueBetween(CommandLine line) throws AtlasException {
+        String usage = "Usage: due-between <yyyy-MM-dd> <yyyy-MM-dd>";
+        PageParts page = extractPageParts(line);
+        CommandLine range = CommandLine.parse(requireArg(page.rest, usage));
+        if (!range.hasArgument() || !range.isArgumentOneWord()) {
+            throw new AtlasException(usage);
         }
-        tasks.add(newEvent);
-        showTaskAdded(tasks, ui, storage);
-        return false;
+        LocalDate first = parseDate(range.command());
+        LocalDate second = parseDate(range.argument());
+        LocalDate from = first.isAfter(second) ? second : first;
+        LocalDate to = first.isAfter(second) ? first : second;
+        return new Commands.ShowMatches(tasks -> tasks.dueBetween(from, to), page.paging);
     }
-    
-    private static boolean handleFind(String[] parts, TaskList tasks, Ui ui) throws AtlasException {
-        String keyword = requireArg(parts, "Usage: find <keyword>");
-        ui.show(tasks.formatMatches(keyword));
-        return false;
+
+    private static Command parseOverdue(CommandLine line) throws AtlasException {
+        PageParts page = extractPageParts(line);
+        // "Today" is read when the command runs, not when it is parsed.
+        return new Commands.ShowMatches(tasks -> tasks.overdue(LocalDate.now()), page.paging);
     }
-    
-    // Helper methods for extracting and validating command parts
-    private static DeadlineParts extractDeadlineParts(String rest) {
-        int at = rest.indexOf(" /by ");
-        return new DeadlineParts(at, rest);
+
+    private static Command parseOn(CommandLine line) throws AtlasException {
+        PageParts page = extractPageParts(line);
+        LocalDate date = parseDate(requireArg(page.rest, "Usage: on <yyyy-MM-dd>"));
+        return new Commands.ShowMatches(tasks -> tasks.eventsOn(date), page.paging);
     }
-    
-    private static void validateDeadlineParts(DeadlineParts parts) throws AtlasException {
-        if (parts.at < 0) {
+
+    // Takes trailing --page/--size options off the command's argument.
+    private static PageParts extractPageParts(CommandLine line) throws AtlasException {
+        int page = 0;
+        int size = 0;
+        String rest = line.argument();
+        Matcher m = PAGE_FLAG.matcher(rest);
+        while (m.find()) {
+            int value;
+            try {
+                value = Integer.parseInt(m.group(2));
+            } catch (NumberFormatException e) {
+                throw new AtlasException(PAGE_NUMBER_ERROR);
+            }
+            if (value <= 0) {
+                throw new AtlasException(PAGE_NUMBER_ERROR);
+            }
+            if (PAGE_OPTION.equals(m.group(1))) {
+                page = value;
+            } else {
+                size = value;
+            }
+            rest = rest.substring(0, m.start());
+            m = PAGE_FLAG.matcher(rest);
+        }
+        return new PageParts(rest, new Commands.Paging(page, size));
+    }
+
+    private static LocalDate parseDate(String text) throws AtlasException {
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new AtlasException(INVALID_DATE_ERROR);
+        }
+    }
+
+    // Helper methods for extracting and validating command parts
+    private static DeadlineParts extractDeadlineParts(CommandLine line) throws AtlasException {
+        int at = line.byAt();
+        if (at < 0) {
             throw new AtlasException(MISSING_BY_ERROR);
         }
         
-        String desc = parts.rest.substring(0, parts.at).trim();
-        String by = parts.rest.substring(parts.at + BYE_LENGTH).trim();
+        String desc = line.slice(line.argumentStart(), at);
+        String by = line.slice(at + CommandLine.BY_MARKER.length(), line.argumentEnd());
         
         if (desc.isEmpty() || by.isEmpty()) {
             throw new AtlasException(DESCRIPTION_REQUIRED_ERROR);
         }
-        
-        parts.description = desc;
-        parts.by = by;
+        return new DeadlineParts(desc, by);
     }
     
-    private static EventParts extractEventParts(String rest) {
-        int fromAt = rest.indexOf(" /from ");
-        int toAt = rest.indexOf(" /to ");
-        return new EventParts(fromAt, toAt, rest);
-    }
-    
-    private static void validateEventParts(EventParts parts) throws AtlasException {
-        if (parts.fromAt < 0 || parts.toAt < 0 || parts.toAt <= parts.fromAt) {
+    private static EventParts extractEventParts(CommandLine line) throws AtlasException {
+        int fromAt = line.fromAt();
+        int toAt = line.toAt();
+        if (fromAt < 0 || toAt < 0 || toAt <= fromAt) {
             throw new AtlasException(MISSING_FROM_TO_ERROR);
         }
         
-        String desc = parts.rest.substring(0, parts.fromAt).trim();
-        String from = parts.rest.substring(parts.fromAt + FROM_LENGTH, parts.toAt).trim();
-        String to = parts.rest.substring(parts.toAt + TO_LENGTH).trim();
+        String desc = line.slice(line.argumentStart(), fromAt);
+        String from = line.slice(fromAt + CommandLine.FROM_MARKER.length(), toAt);
+        String to = line.slice(toAt + CommandLine.TO_MARKER.length(), line.argumentEnd());
         
         if (desc.isEmpty() || from.isEmpty() || to.isEmpty()) {
             throw new AtlasException(EVENT_DESCRIPTION_REQUIRED_ERROR);
         }
-        
-        parts.description = desc;
-        parts.from = from;
-        parts.to = to;
-    }
-    
-    // Common utility methods to eliminate duplication
-    private static void showTaskAdded(TaskList tasks, Ui ui, Storage storage) {
-        Task lastTask = tasks.get(tasks.size() - 1);
-        String message = String.format("Got it. I've added this task:\n %s\nNow you have %d tasks in the list.",
-                lastTask, tasks.size());
-        ui.show(message);
-        persist(storage, tasks, ui);
-    }
-    
-    private static void showTaskRemoved(Task removed, TaskList tasks, Ui ui, Storage storage) {
-        String message = String.format("Noted. I've removed this task:\n %s\nNow you have %d tasks in the list.",
-                removed, tasks.size());
-        ui.show(message);
-        persist(storage, tasks, ui);
+        return new EventParts(desc, from, to);
     }
     
     // Helper classes for command parts
     private static class DeadlineParts {
-        final int at;
-        final String rest;
-        String description;
-        String by;
+        final String description;
+        final String by;
         
-        DeadlineParts(int at, String rest) {
-            this.at = at;
-            this.rest = rest;
+        DeadlineParts(String description, String by) {
+            this.description = description;
+            this.by = by;
         }
     }
     
-    private static class EventParts {
-        final int fromAt, toAt;
+    private static class PageParts {
         final String rest;
-        String description, from, to;
-        
-        EventParts(int fromAt, int toAt, String rest) {
-            this.fromAt = fromAt;
-            this.toAt = toAt;
+        final Commands.Paging paging;
+
+        PageParts(String rest, Commands.Paging paging) {
             this.rest = rest;
+            this.paging = paging;
         }
     }
 
-    private static void persist(Storage storage, TaskList tasks, Ui ui) {
-        try {
-            storage.save(tasks.asList());
-        } catch (IOException e) {
-            ui.show("Warning: couldn't save tasks to disk.");
+    private static class EventParts {
+        final String description, from, to;
+        
+        EventParts(String description, String from, String to) {
+            this.description = description;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    private static String requireArg(String arg, String errorMessage) throws AtlasException {
+        if (arg.trim().isEmpty()) {
+            throw new AtlasException(errorMessage);
         }
+        return arg.trim();
     }
 
-    private static String requireArg(String[] parts, String errorMessage) throws AtlasException {
-        if (parts.length < 2 || parts[ARGUMENT_INDEX].trim().isEmpty()) {
+    private static String requireArg(CommandLine line, String errorMessage) throws AtlasException {
+        if (!line.hasArgument()) {
             throw new AtlasException(errorMessage);
         }
-        return parts[ARGUMENT_INDEX].trim();
+        return line.argument();
     }
 
-    private static int parseIndex(String[] parts, int size, String command) throws AtlasException {
+    // A selection names several tasks at once: "3-120", "1,4,9-20" or "done".
+    private static boolean isSelection(CommandLine line) {
+        if (!line.hasArgument()) {
+            return false;
+        }
+        String arg = line.argument();
+        return arg.equals(DONE_SELECTOR) || IndexRanges.isRangeList(arg);
+    }
+
+    private static Commands.Selection parseSelection(CommandLine line, String command) throws AtlasException {
+        String arg = line.argument();
+        if (arg.equals(DONE_SELECTOR)) {
+            return Commands.Selection.doneTasks();
+        }
+
+        IntList bounds = IndexRanges.parse(arg);
+        if (bounds == null) {
+            throw new AtlasException(TASK_NUMBER_ERROR + " Usage: " + command + " <n>|<from>-<to>|<n>,<n>...|done");
+        }
+        return Commands.Selection.ranges(bounds);
+    }
+
+    // Reads a single task number; whether it is in range is checked when the command runs.
+    private static int parseNumber(CommandLine line, String command) throws AtlasException {
         String usage = "Usage: " + command + " <task number>";
-        if (parts.length < 2) {
+        if (!line.hasArgument()) {
             throw new AtlasException(usage);
         }
 
-        String token = parts[ARGUMENT_INDEX].trim();
-        int n;
         try {
-            n = Integer.parseInt(token);
+            return Integer.parseInt(line.argument());
         } catch (NumberFormatException e) {
             throw new AtlasException(TASK_NUMBER_ERROR + " " + usage);
         }
-        if (n < 1 || n > size) {
-            throw new AtlasException(String.format(TASK_OUT_OF_RANGE_ERROR, token, size));
-        }
-        return n - USER_DISPLAY_OFFSET;
     }
 }
@@ -0,0 +1,31 @@
+package atlas;
+
+/**
+ * On-disk layout of the save file. {@link Storage} can read either one and
+ * writes whichever is configured.
+ */
+public enum SaveFormat {
+    /** One pipe-separated line per task; easy to read and edit by hand. */
+    TEXT,
+    /** Compact binary layout (see {@link BinaryFormat}); fastest to load. */
+    BINARY;
+
+    /**
+     * Parses a save format from its (case-insensitive) name.
+     *
+     * @param name     format name such as {@code text} or {@code binary}
+     * @param fallback format to use if {@code name} is missing or unknown
+     * @return parsed save format
+     */
+    public static SaveFormat parse(String name, SaveFormat fallback) {
+        if (name == null) {
+            return fallback;
+        }
+        for (SaveFormat f : values()) {
+            if (f.name().equalsIgnoreCase(name.trim())) {
+                return f;
+            }
+        }
+        return fallback;
+    }
+}
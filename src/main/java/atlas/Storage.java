@@ -1,19 +1,66 @@
 package atlas;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.zip.CRC32;
 
 /**
  * Persists the task list to a simple text file and loads it back.
  * <p>
  * The file is created lazily and parent directories are created if necessary.
+ * It can also be written in a compact binary layout ({@link SaveFormat#BINARY});
+ * loading recognises either format by its first bytes.
+ * <p>
+ * In journal mode, each mutation is appended as one short record to a
+ * journal file next to the save file (the snapshot) instead of rewriting
+ * the whole list. {@link #load()} replays the journal on top of the snapshot,
+ * and the journal is folded back into the snapshot once it grows past a
+ * configurable fraction of the snapshot size.
+ * <p>
+ * Snapshots are never written in place: they go to a temporary file that is
+ * forced to disk (depending on the {@link Durability} level) and then moved
+ * over the save file atomically, keeping the previous snapshot as a backup.
+ * <p>
+ * With write-behind switched on, mutations are handed to a
+ * {@link WriteBehindPersister} and written on its own thread instead of
+ * blocking the caller.
+ * <p>
+ * Between {@link #beginBatch()} and {@link #commitBatch(List)}, mutations
+ * are only collected, and the commit persists all of them with one write.
  */
 public class Storage {
     private final Path file;
+    private final Path journal;
+    private final Path temp;
+    private final Path backup;
+
+    private Durability durability = Durability.BATCH;
+    private SaveFormat format = SaveFormat.TEXT;
+    private boolean isJournaling = false;
+    private double compactionRatio;
+    private long snapshotBytes;
+    private long journalBytes;
+    private int skippedLines;
+    private WriteBehindPersister writeBehind;
+    private List<String> batch; // records held back until commit; null when no batch is open
+    private Metrics metrics = Metrics.DISABLED;
 
     /**
      * Creates a storage instance bound to the given relative/absolute path.
@@ -23,102 +70,700 @@ public class Storage {
     public Storage(String relativePath) {
         assert relativePath != null && !relativePath.trim().isEmpty() : "storage path must not be empty";
         this.file = Paths.get(relativePath);
+        this.journal = Paths.get(relativePath + JOURNAL_SUFFIX);
+        this.temp = Paths.get(relativePath + TEMP_SUFFIX);
+        this.backup = Paths.get(relativePath + BACKUP_SUFFIX);
+    }
+
+    /**
+     * Sets how aggressively writes are forced to disk.
+     *
+     * @param durability durability level to use for subsequent writes
+     */
+    public void setDurability(Durability durability) {
+        assert durability != null : "durability must not be null";
+        this.durability = durability;
+    }
+
+    /**
+     * Sets the layout used when writing the save file.
+     *
+     * @param format save format for subsequent saves
+     */
+    public void setFormat(SaveFormat format) {
+        assert format != null : "format must not be null";
+        this.format = format;
     }
 
+    /**
+     * Sets where the time and size of each write are recorded.
+     *
+     * @param metrics metrics to record writes in
+     */
+    void setMetrics(Metrics metrics) {
+        assert metrics != null : "metrics must not be null";
+        this.metrics = metrics;
+    }
+
+    /**
+     * Converts a save file to the given format, whatever format it is in now.
+     *
+     * @param source path of the existing save file
+     * @param target path to write the converted file to (may equal {@code source})
+     * @param format format to convert to
+     * @throws IOException if either file cannot be read or written
+     */
+    public static void convert(String source, String target, SaveFormat format) throws IOException {
+        List<Task> tasks = new Storage(source).load();
+        Storage out = new Storage(target);
+        out.setFormat(format);
+        out.save(tasks);
+    }
+
+    /**
+     * Switches this storage to journal mode.
+     *
+     * @param compactionRatio journal size, relative to the snapshot, at which
+     *                        the journal is compacted into a fresh snapshot
+     */
+    public void enableJournal(double compactionRatio) {
+        assert compactionRatio > 0 : "compaction ratio must be positive";
+        this.isJournaling = true;
+        this.compactionRatio = compactionRatio;
+    }
 
     /**
-     * Loads tasks from disk. If the file does not exist, an empty list is returned
-     * and the parent directory is created so that subsequent saves succeed.
+     * Loads tasks from disk. If the file does not exist, the backup of the
+     * previous snapshot is used instead; if neither exists, an empty list is
+     * returned and the parent directory is created so that subsequent saves succeed.
      *
      * @return list of tasks loaded from the save file
      * @throws IOException if the file exists but cannot be read
      */
     public List<Task> load() throws IOException {
-        List<Task> out = new ArrayList<>();
+        return load(new ArrayList<>());
+    }
 
-        if (!Files.exists(file)) {
+    /**
+     * Loads tasks like {@link #load()}, but into a {@link CompactTaskList},
+     * which holds a large list in a fraction of the memory.
+     *
+     * @return compact list of tasks loaded from the save file
+     * @throws IOException if the file exists but cannot be read
+     */
+    List<Task> loadCompact() throws IOException {
+        return load(new CompactTaskList());
+    }
+
+    private List<Task> load(List<Task> out) throws IOException {
+        StorageEvent event = StorageEvent.start(StorageEvent.LOAD, file);
+        try {
+            readAll(out);
+            if (event.stop()) {
+                event.succeed(out.size(), sizeOnDisk());
+            }
+            return out;
+        } catch (IOException | RuntimeException e) {
+            event.fail(e);
+            throw e;
+        }
+    }
+
+    // Reads the snapshot, or its backup, into out and replays the journal on top.
+    private List<Task> readAll(List<Task> out) throws IOException {
+        skippedLines = 0;
+
+        Path source = Files.exists(file) ? file : backup;
+        if (!Files.exists(source)) {
             if (file.getParent() != null) {
                 Files.createDirectories(file.getParent());
-                return out;
             }
+        } else if (BinaryFormat.isBinary(source)) {
+            skippedLines = BinaryFormat.read(source, out);
+        } else {
+            skippedLines = TextFormat.read(source, out);
         }
 
-        List<String> lines = Files.readAllLines(file);
-        for (String line : lines) {
-            Task t = parse(line);
-            if (t != null) {
-                out.add(t);
+        if (isJournaling) {
+            snapshotBytes = Files.exists(source) ? Files.size(source) : 0;
+            replayJournal(out, source);
+        }
+        return out;
+    }
+
+    /**
+     * Loads tasks like {@link #load()}, but opens a binary save file as a
+     * {@link PagedTaskList} that decodes tasks only when they are read, so
+     * loading takes the same time however many tasks are saved. Text save
+     * files have no offset table to page through and are loaded in full.
+     *
+     * @param cachePages number of decoded pages of tasks to keep in memory
+     * @return list of tasks backed by the save file
+     * @throws IOException if the file exists but cannot be read
+     */
+    public List<Task> loadLazily(int cachePages) throws IOException {
+        assert cachePages > 0 : "cache must hold at least one page";
+        StorageEvent event = StorageEvent.start(StorageEvent.LOAD_LAZILY, file);
+        try {
+            List<Task> out = openPaged(cachePages);
+            if (event.stop()) {
+                event.succeed(out.size(), sizeOnDisk());
             }
+            return out;
+        } catch (IOException | RuntimeException e) {
+            event.fail(e);
+            throw e;
+        }
+    }
+
+    // Opens a binary snapshot for paging, falling back to a full read for text files.
+    private List<Task> openPaged(int cachePages) throws IOException {
+        Path source = Files.exists(file) ? file : backup;
+        if (!Files.exists(source) || !BinaryFormat.isBinary(source)) {
+            return readAll(new ArrayList<>());
+        }
+
+        // Damaged records only show up when read, so none are counted here.
+        skippedLines = 0;
+        List<Task> out = new PagedTaskList(openCopy(source), cachePages);
+        if (isJournaling) {
+            snapshotBytes = Files.exists(source) ? Files.size(source) : 0;
+            replayJournal(out, source);
         }
         return out;
     }
 
+    // Maps a private copy of the snapshot rather than the snapshot itself. The
+    // mapping lasts until the list is garbage collected, and on Windows a
+    // mapped file can be neither replaced by a save nor linked as its backup.
+    private BinaryFormat.Reader openCopy(Path source) throws IOException {
+        Path dir = source.toAbsolutePath().getParent();
+        String prefix = source.getFileName() + ".";
+        deleteStaleCopies(dir, prefix);
+        Path copy = Files.createTempFile(dir, prefix, PAGED_SUFFIX);
+        try {
+            Files.copy(source, copy, StandardCopyOption.REPLACE_EXISTING);
+            return BinaryFormat.Reader.open(copy, false);
+        } finally {
+            try {
+                Files.delete(copy); // the mapping outlives the name where the system allows it
+            } catch (IOException e) {
+                copy.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    // Removes copies left by earlier sessions; ones still mapped are skipped.
+    private static void deleteStaleCopies(Path dir, String prefix) {
+        try (DirectoryStream<Path> copies = Files.newDirectoryStream(dir, prefix + "*" + PAGED_SUFFIX)) {
+            for (Path copy : copies) {
+                try {
+                    Files.deleteIfExists(copy);
+                } catch (IOException e) {
+                    // Still in use; a later load will try again.
+                }
+            }
+        } catch (IOException e) {
+            // Nothing to clean up.
+        }
+    }
+
+    // Size of the file a load reads from, for the load event.
+    private long sizeOnDisk() throws IOException {
+        Path source = Files.exists(file) ? file : backup;
+        return Files.exists(source) ? Files.size(source) : 0;
+    }
+
     /**
-     * Saves all tasks to disk, overwriting the file.
+     * Returns how many non-blank lines (or binary records) the last
+     * {@link #load()} could not parse.
+     *
+     * @return number of skipped lines
+     */
+    public int getSkippedLineCount() {
+        return skippedLines;
+    }
+
+    /**
+     * Saves all tasks to disk, replacing the file atomically. The previous
+     * snapshot is kept as a backup next to the save file. A live
+     * {@link TaskList#asList()} view is copied first, so the file holds the
+     * list as it was at one moment even if it changes during the write.
      *
      * @param tasks tasks to write
-     * @throws IOException if the file cannot be written
+     * @throws IOException if the file cannot be written, or if a task is a
+     *                     placeholder for one that could not be read from it
      */
-    public void save(List<Task> tasks) throws IOException {
+    public synchronized void save(List<Task> tasks) throws IOException {
         assert tasks != null : "tasks to save must not be null";
+        StorageEvent event = StorageEvent.start(StorageEvent.SAVE, file);
+        long start = metrics.now();
+        List<Task> snapshot = TaskList.snapshotOf(tasks);
+        try {
+            long bytes = writeSnapshot(snapshot);
+            metrics.recordSave(bytes, start);
+            if (event.stop()) {
+                event.succeed(snapshot.size(), bytes);
+            }
+        } catch (IOException | RuntimeException e) {
+            event.fail(e);
+            throw e;
+        }
+    }
+
+    // Writes the snapshot to a temporary file and moves it into place, returning its size.
+    private long writeSnapshot(List<Task> tasks) throws IOException {
         if (file.getParent() != null) {
             Files.createDirectories(file.getParent());
         }
-        List<String> lines = new ArrayList<>();
-        for (Task t : tasks) {
-            lines.add(t.toSave());
+        long bytes;
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            if (format == SaveFormat.BINARY) {
+                BinaryFormat.write(tasks, channel);
+            } else {
+                BufferedWriter writer = new BufferedWriter(
+                        new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+                for (int i = 0; i < tasks.size(); i++) {
+                    Task t = tasks.get(i);
+                    PagedTaskList.checkReadable(t, i);
+                    writer.write(t.toSave());
+                    writer.newLine();
+                }
+                writer.flush();
+            }
+            if (durability != Durability.NONE) {
+                channel.force(true);
+            }
+            bytes = channel.size();
+        }
+        keepBackup();
+        moveIntoPlace(temp, file);
+
+        if (isJournaling) {
+            // The snapshot now holds every journalled change.
+            Files.deleteIfExists(journal);
+            snapshotBytes = Files.size(file);
+            journalBytes = 0;
+        }
+        return bytes;
+    }
+
+    /**
+     * Persists a single mutation. In journal mode the record is appended to
+     * the journal (compacting it if it has grown too large); otherwise the
+     * whole list is saved. With write-behind switched on, the record is only
+     * queued and this returns as soon as there is room in the queue.
+     *
+     * @param record mutation record built by one of the {@code *Record} helpers
+     * @param tasks  full task list after the mutation
+     * @throws IOException if the journal or save file cannot be written
+     */
+    public void record(String record, List<Task> tasks) throws IOException {
+        recordAll(List.of(record), tasks);
+    }
+
+    /**
+     * Persists a group of mutations in one go. In journal mode the records
+     * are appended together and, under {@link Durability#BATCH}, forced to
+     * disk once for the whole group; otherwise the whole list is saved once.
+     *
+     * @param records mutation records in the order they were applied
+     * @param tasks   full task list after all the mutations
+     * @throws IOException if the journal or save file cannot be written, or
+     *                     if an earlier background write failed
+     */
+    public void recordAll(List<String> records, List<Task> tasks) throws IOException {
+        assert records != null : "records must not be null";
+        if (batch != null) {
+            batch.addAll(records);
+        } else if (writeBehind != null) {
+            writeBehind.submitAll(records);
+        } else {
+            writeAll(records, tasks);
+        }
+    }
+
+    /**
+     * Starts holding mutations back instead of persisting them, until
+     * {@link #commitBatch(List)} or {@link #rollbackBatch()}.
+     */
+    public void beginBatch() {
+        assert batch == null : "a batch is already open";
+        batch = new ArrayList<>();
+    }
+
+    /**
+     * Persists every mutation recorded since {@link #beginBatch()} in one go,
+     * as {@link #recordAll(List, List)} does.
+     *
+     * @param tasks full task list after all the mutations
+     * @return number of mutations persisted
+     * @throws IOException if the journal or save file cannot be written
+     */
+    public int commitBatch(List<Task> tasks) throws IOException {
+        assert batch != null : "no batch is open";
+        List<String> records = batch;
+        batch = null;
+        recordAll(records, tasks);
+        return records.size();
+    }
+
+    /**
+     * Drops the mutations recorded since {@link #beginBatch()} without persisting them.
+     */
+    public void rollbackBatch() {
+        assert batch != null : "no batch is open";
+        batch = null;
+    }
+
+    /**
+     * Returns whether mutations are being held back for a batch.
+     *
+     * @return {@code true} between {@link #beginBatch()} and its commit or rollback
+     */
+    public boolean isBatching() {
+        return batch != null;
+    }
+
+    /**
+     * Starts writing mutations on a background thread. Bursts of records
+     * arriving within {@code windowMillis} of each other are written together.
+     *
+     * @param current      task list as it stands now (already on disk)
+     * @param windowMillis how long to wait for more records before writing
+     * @param capacity     maximum number of queued records before callers block
+     */
+    public void startWriteBehind(List<Task> current, long windowMillis, int capacity) {
+        assert writeBehind == null : "write-behind already started";
+        writeBehind = new WriteBehindPersister(this, current, windowMillis, capacity);
+        writeBehind.start();
+    }
+
+    /**
+     * Blocks until every queued mutation has been written. Does nothing when
+     * write-behind is off, as writes then happen immediately.
+     *
+     * @throws IOException if a background write failed
+     */
+    public void flush() throws IOException {
+        if (writeBehind != null) {
+            writeBehind.flush();
+        }
+    }
+
+    /**
+     * Flushes queued mutations and stops the write-behind thread, if any.
+     *
+     * @throws IOException if a background write failed
+     */
+    public void close() throws IOException {
+        if (writeBehind != null) {
+            WriteBehindPersister persister = writeBehind;
+            writeBehind = null;
+            persister.close();
         }
-        Files.write(file, lines);
     }
 
-    // Named constants for array indices
-    private static final int TYPE_INDEX = 0;
-    private static final int STATUS_INDEX = 1;
-    private static final int DESCRIPTION_INDEX = 2;
-    private static final int DATE_INDEX = 3;
-    private static final int FROM_INDEX = 3;
-    private static final int TO_INDEX = 4;
-    
-    // Task type constants
-    private static final String TODO_TYPE = "T";
-    private static final String DEADLINE_TYPE = "D";
-    private static final String EVENT_TYPE = "E";
-    private static final String DONE_STATUS = "1";
+    // Writes records straight to disk on the calling thread.
+    synchronized void writeAll(List<String> records, List<Task> tasks) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (!isJournaling) {
+            save(tasks);
+            return;
+        }
+
+        StorageEvent event = StorageEvent.start(StorageEvent.JOURNAL, journal);
+        long start = metrics.now();
+        try {
+            long written = appendToJournal(records);
+            metrics.recordSave(written, start);
+            if (event.stop()) {
+                event.succeed(tasks.size(), written);
+            }
+        } catch (IOException | RuntimeException e) {
+            event.fail(e);
+            throw e;
+        }
 
-    // Parses a single save line; invalid lines are ignored.
-    private Task parse(String line) {
-        if (line == null || line.trim().isEmpty()) {
-            return null;
+        if (journalBytes > compactionRatio * Math.max(snapshotBytes, MIN_COMPACTION_BYTES)) {
+            save(tasks);
         }
+    }
 
-        String[] parts = line.split("\\s*\\|\\s*");
-        if (parts.length < 3) {
-            return null;
+    // Appends records to the journal, starting it if needed, and returns the bytes appended.
+    private long appendToJournal(List<String> records) throws IOException {
+        long written = 0;
+        if (!Files.exists(journal)) {
+            startJournal();
+        }
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.APPEND)) {
+            for (String record : records) {
+                assert record != null : "record must not be null";
+                ByteBuffer bytes = StandardCharsets.UTF_8.encode(record + System.lineSeparator());
+                journalBytes += bytes.remaining();
+                written += bytes.remaining();
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                if (durability == Durability.WRITE) {
+                    channel.force(false);
+                }
+            }
+            if (durability == Durability.BATCH) {
+                channel.force(false);
+            }
         }
+        return written;
+    }
+
+    /**
+     * Builds the journal record for a task appended to the end of the list.
+     *
+     * @param t task that was added
+     * @return journal record
+     */
+    public static String addRecord(Task t) {
+        return ADD_RECORD + " " + t.toSave();
+    }
+
+    /**
+     * Builds the journal record for marking the task at {@code idx} as done.
+     *
+     * @param idx zero-based index
+     * @return journal record
+     */
+    public static String markRecord(int idx) {
+        return MARK_RECORD + " " + idx;
+    }
 
+    /**
+     * Builds the journal record for marking the task at {@code idx} as not done.
+     *
+     * @param idx zero-based index
+     * @return journal record
+     */
+    public static String unmarkRecord(int idx) {
+        return UNMARK_RECORD + " " + idx;
+    }
+
+    /**
+     * Builds the journal record for removing the task at {@code idx}.
+     *
+     * @param idx zero-based index
+     * @return journal record
+     */
+    public static String deleteRecord(int idx) {
+        return DELETE_RECORD + " " + idx;
+    }
+
+    /**
+     * Builds the journal record for marking several tasks as done at once.
+     *
+     * @param indexes zero-based indexes of the tasks
+     * @return journal record
+     */
+    public static String markAllRecord(BitSet indexes) {
+        return MARK_RECORD + " " + IndexRanges.format(indexes);
+    }
+
+    /**
+     * Builds the journal record for marking several tasks as not done at once.
+     *
+     * @param indexes zero-based indexes of the tasks
+     * @return journal record
+     */
+    public static String unmarkAllRecord(BitSet indexes) {
+        return UNMARK_RECORD + " " + IndexRanges.format(indexes);
+    }
+
+    /**
+     * Builds the journal record for removing several tasks at once. The
+     * indexes refer to the list before any of them is removed.
+     *
+     * @param indexes zero-based indexes of the tasks
+     * @return journal record
+     */
+    public static String deleteAllRecord(BitSet indexes) {
+        return DELETE_RECORD + " " + IndexRanges.format(indexes);
+    }
+
+
+    // Journal file layout: a header line tying the journal to the snapshot it
+    // was started on, then one record per line.
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String BACKUP_SUFFIX = ".bak";
+    private static final String PAGED_SUFFIX = ".paged";
+    private static final String JOURNAL_HEADER = "#";
+    private static final String ADD_RECORD = "+";
+    private static final String MARK_RECORD = "x";
+    private static final String UNMARK_RECORD = "o";
+    private static final String DELETE_RECORD = "-";
+    private static final long MIN_COMPACTION_BYTES = 64 * 1024;
+
+    // Keeps the current snapshot as the backup generation. A hard link costs
+    // no copying; file systems without links fall back to a plain copy.
+    private void keepBackup() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        Files.deleteIfExists(backup);
         try {
-            return createTaskFromParts(parts);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-    
-    private Task createTaskFromParts(String[] parts) {
-        String type = parts[TYPE_INDEX];
-        boolean done = DONE_STATUS.equals(parts[STATUS_INDEX]);
-        
-        Task task = switch (type) {
-            case TODO_TYPE -> new Todo(parts[DESCRIPTION_INDEX]);
-            case DEADLINE_TYPE -> new Deadline(parts[DESCRIPTION_INDEX], parts[DATE_INDEX]);
-            case EVENT_TYPE -> new Event(parts[DESCRIPTION_INDEX], parts[FROM_INDEX], parts[TO_INDEX]);
-            default -> null;
-        };
-        
-        if (task != null && done) {
-            task.mark();
-        }
-        
-        return task;
+            Files.createLink(backup, file);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(file, backup, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Renames the fully written temp file over the target so readers only
+    // ever see the old or the new snapshot, never a partial one.
+    private void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (durability != Durability.NONE) {
+            syncDirectory(target.toAbsolutePath().getParent());
+        }
+    }
+
+    // Makes the rename itself durable. Not every platform allows opening a
+    // directory, in which case the rename is left to the OS.
+    private static void syncDirectory(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort only.
+        }
+    }
+
+    // Creates an empty journal stamped with the checksum of the snapshot a
+    // load would read it on top of: the save file, or its backup if it is gone.
+    private void startJournal() throws IOException {
+        if (journal.getParent() != null) {
+            Files.createDirectories(journal.getParent());
+        }
+        Path snapshot = Files.exists(file) ? file : backup;
+        String header = JOURNAL_HEADER + snapshotChecksum(snapshot) + System.lineSeparator();
+        byte[] bytes = header.getBytes(StandardCharsets.UTF_8);
+        Files.write(journal, bytes);
+        journalBytes = bytes.length;
+        if (durability != Durability.NONE) {
+            syncDirectory(journal.toAbsolutePath().getParent());
+        }
+    }
+
+    // Applies journal records to the freshly loaded snapshot, which is the
+    // backup if the save file is missing. A journal whose header does not
+    // match that snapshot was already compacted into it (the process stopped
+    // between the two writes) and is discarded.
+    private void replayJournal(List<Task> out, Path source) throws IOException {
+        journalBytes = 0;
+        if (!Files.exists(journal)) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(journal)) {
+            String header = reader.readLine();
+            if (header == null || !header.equals(JOURNAL_HEADER + snapshotChecksum(source))) {
+                Files.delete(journal);
+                return;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                apply(line, out);
+            }
+        }
+        journalBytes = Files.size(journal);
     }
 
+    // Applies a single journal record; malformed or out-of-range records are ignored.
+    void apply(String record, List<Task> out) {
+        int space = record.indexOf(' ');
+        if (space < 0) {
+            return;
+        }
+        String op = record.substring(0, space);
+        String arg = record.substring(space + 1);
+
+        if (ADD_RECORD.equals(op)) {
+            Task t = TextFormat.parse(arg);
+            if (t != null) {
+                out.add(t);
+            }
+            return;
+        }
+
+        if (IndexRanges.isRangeList(arg)) {
+            applyAll(op, arg, out);
+            return;
+        }
+
+        int idx;
+        try {
+            idx = Integer.parseInt(arg.trim());
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (idx < 0 || idx >= out.size()) {
+            return;
+        }
+        switch (op) {
+        case MARK_RECORD -> out.set(idx, out.get(idx).withDone(true));
+        case UNMARK_RECORD -> out.set(idx, out.get(idx).withDone(false));
+        case DELETE_RECORD -> out.remove(idx);
+        default -> {
+            // Unknown record type: ignore, like an unparseable save line.
+        }
+        }
+    }
+
+    // Applies a record covering several tasks; ignored unless every index is in range.
+    private static void applyAll(String op, String arg, List<Task> out) {
+        IntList bounds = IndexRanges.parse(arg);
+        if (bounds == null) {
+            return;
+        }
+        for (int i = 0; i < bounds.size(); i += 2) {
+            if (bounds.get(i) < 0 || bounds.get(i + 1) >= out.size()) {
+                return;
+            }
+        }
+        BitSet indexes = IndexRanges.toSet(bounds, 0);
+        switch (op) {
+        case MARK_RECORD, UNMARK_RECORD -> {
+            boolean isDone = MARK_RECORD.equals(op);
+            for (int idx = indexes.nextSetBit(0); idx >= 0; idx = indexes.nextSetBit(idx + 1)) {
+                out.set(idx, out.get(idx).withDone(isDone));
+            }
+        }
+        case DELETE_RECORD -> TaskList.removeAll(out, indexes);
+        default -> {
+            // Unknown record type: ignore, like an unparseable save line.
+        }
+        }
+    }
+
+    // Checksum of the given snapshot, or of no bytes if it does not exist.
+    private static String snapshotChecksum(Path snapshot) throws IOException {
+        CRC32 crc = new CRC32();
+        if (Files.exists(snapshot)) {
+            try (InputStream in = Files.newInputStream(snapshot)) {
+                byte[] buf = new byte[8192];
+                int n;
+                while ((n = in.read(buf)) > 0) {
+                    crc.update(buf, 0, n);
+                }
+            }
+        }
+        return Long.toHexString(crc.getValue());
+    }
 }
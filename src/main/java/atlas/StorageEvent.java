@@ -0,0 +1,92 @@
+package atlas;
+
+import java.nio.file.Path;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering one read or write of the save file or
+ * journal, so disk time can be lined up with commands and GC pauses.
+ * Costs nothing unless a recording that includes it is running: callers
+ * check {@link #stop()} before working out the task count and size.
+ */
+@Name("atlas.Storage")
+@Label("Storage")
+@Category("Atlas")
+@Description("A load of, or write to, the save file or journal")
+class StorageEvent extends Event {
+    static final String LOAD = "load";
+    static final String LOAD_LAZILY = "load lazily";
+    static final String SAVE = "save";
+    static final String JOURNAL = "journal";
+    static final String OK = "ok";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("File")
+    String path;
+
+    @Label("Tasks")
+    @Description("Number of tasks loaded or in the list written")
+    int taskCount;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Outcome")
+    @Description("ok, or the error that stopped the operation")
+    String outcome;
+
+    private transient Path file;
+
+    /**
+     * Starts timing an operation on the given file.
+     */
+    static StorageEvent start(String operation, Path file) {
+        StorageEvent event = new StorageEvent();
+        event.operation = operation;
+        event.file = file;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the operation and returns whether it is being recorded, in which
+     * case the caller should pass on the details with {@link #succeed}.
+     */
+    boolean stop() {
+        end();
+        return shouldCommit();
+    }
+
+    /**
+     * Commits a successful operation that {@link #stop()} said is being recorded.
+     */
+    void succeed(int tasks, long byteCount) {
+        commitWith(tasks, byteCount, OK);
+    }
+
+    /**
+     * Ends a failed operation and commits it if it is being recorded.
+     */
+    void fail(Exception e) {
+        if (stop()) {
+            commitWith(0, 0, e.toString());
+        }
+    }
+
+    private void commitWith(int tasks, long byteCount, String result) {
+        path = file.toString();
+        taskCount = tasks;
+        bytes = byteCount;
+        outcome = result;
+        commit();
+    }
+}
@@ -4,7 +4,7 @@ package atlas;
  * Base class for all tasks. A task has a description and a completion status.
  */
 
-public abstract class Task {
+public abstract class Task implements Cloneable {
     protected String description;
     protected boolean isDone;
 
@@ -20,21 +20,46 @@ public abstract class Task {
     }
 
     /**
-     * Marks this task as done.
+     * Marks this task as done. Only for tasks being built, such as by the
+     * loaders; tasks in a list are changed with {@link #withDone(boolean)}.
      */
-    public void mark() {
+    void mark() {
         this.isDone = true;
     }
 
     /**
-     * Returns the status icon used in the list output.
-     *
-     * @return "X" if done, otherwise a single space
+     * Marks this task as not done. Only for tasks being built, as for {@link #mark()}.
      */
-    public void unmark() {
+    void unmark() {
         this.isDone = false;
     }
 
+    /**
+     * Returns a task like this one with the given completion status, leaving
+     * this task unchanged. Task lists change a task's status this way, so a
+     * snapshot taken earlier (for a save, say) never sees the change.
+     *
+     * @param isDone completion status of the result
+     * @return this task if it already has that status, otherwise a copy
+     */
+    Task withDone(boolean isDone) {
+        if (this.isDone == isDone) {
+            return this;
+        }
+        try {
+            Task copy = (Task) super.clone();
+            copy.isDone = isDone;
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Returns the status icon used in the list output.
+     *
+     * @return "X" if done, otherwise a single space
+     */
     public String getStatusIcon() {
         return isDone ? "X" : " ";
     }
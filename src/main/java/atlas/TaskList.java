@@ -1,24 +1,78 @@
 package atlas;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Mutable collection of Task objects with convenience operations used
  * by the chatbot.
+ * <p>
+ * Alongside the ordered list, a {@link DuplicateIndex} finds tasks under the
+ * identity defined by {@link Task#equals(Object)}, so duplicate checks do
+ * not need to scan the list, a {@link KeywordIndex} maps description
+ * words to tasks for {@code find}, a {@link DeadlineIndex} keeps
+ * deadlines sorted by due date, and an {@link EventIndex} holds the events
+ * whose times could be parsed, for clash checks.
+ * <p>
+ * Every task gets an id when it is added. Ids only ever grow and tasks are
+ * only appended, so the ids stay sorted in list order and an id can be
+ * turned back into a position with a binary search.
+ * <p>
+ * Each index is built the first time a query needs it, on its own, so a
+ * list {@link #backedBy(List) backed by} a lazily loaded save file is not
+ * read in full until then, and a duplicate check does not pay for the
+ * keyword index. None of them hold on to the tasks themselves.
+ * <p>
+ * Changes can be grouped into a batch with {@link #beginBatch()}. Rolling
+ * the batch back restores the list as it was when the batch began.
+ * <p>
+ * A task list can be shared between threads, such as a command handler, a
+ * background save and a GUI refresh. Changes take a write lock and queries
+ * a read lock, so each method is atomic, but a sequence of calls is not:
+ * commands are still run one at a time. Tasks in the list are never changed
+ * in place; marking one replaces it with a copy. So {@link #snapshot()}
+ * (and saving or listing, which work from snapshots or copied pages) holds
+ * the lock only while the list itself is copied, and writers do not wait
+ * for the slow part.
  */
 public class TaskList {
-    private final ArrayList<Task> tasks;
+    private List<Task> tasks;
+    private IntList ids; // null until the first index is built
+    private DuplicateIndex duplicates; // each index is null until a query needs it
+    private KeywordIndex keywords;
+    private DeadlineIndex deadlines;
+    private EventIndex events;
+    private int nextId = 0;
+    private List<Task> checkpoint; // the list when the batch began; null when no batch is open
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+    private final View view = new View();
+
+    // Above this many tasks, a bulk removal rebuilds the indexes instead of updating them.
+    private static final int MAX_INDEXED_REMOVALS = 64;
     
     // Constants for formatting
-    private static final int USER_DISPLAY_OFFSET = 1; // Convert 0-based to 1-based indexing
     private static final String NO_TASKS_MESSAGE = "(no tasks yet)";
     private static final String NO_MATCHING_TASKS_MESSAGE = "(no matching tasks)";
     private static final String TASKS_LIST_HEADER = "Here are the tasks in your list:";
     private static final String MATCHING_TASKS_HEADER = "Here are the matching tasks in your list:";
 
+    // The indexes, each built separately when first needed.
+    private enum Index {
+        DUPLICATES, KEYWORDS, DEADLINES, EVENTS
+    }
+
     public TaskList() {
-        this.tasks = new ArrayList<>();
+        this(new ArrayList<>(), false);
     }
 
     /**
@@ -27,7 +81,25 @@ public class TaskList {
      * @param initial tasks to start with
      */
     public TaskList(List<Task> initial) {
-        this.tasks = new ArrayList<>(initial);
+        this(initial, true);
+    }
+
+    private TaskList(List<Task> tasks, boolean isCopying) {
+        this.tasks = isCopying ? new ArrayList<>(tasks) : tasks;
+    }
+
+    /**
+     * Creates a task list that works on the given list directly instead of
+     * copying it, such as a {@link PagedTaskList} from
+     * {@link Storage#loadLazily(int)}. The list must not be changed other
+     * than through the returned task list.
+     *
+     * @param backing list to use for storage
+     * @return task list backed by {@code backing}
+     */
+    static TaskList backedBy(List<Task> backing) {
+        assert backing != null : "backing list must not be null";
+        return new TaskList(backing, false);
     }
 
     /**
@@ -36,7 +108,12 @@ public class TaskList {
      * @return task count
      */
     public int size() {
-        return tasks.size();
+        readLock.lock();
+        try {
+            return tasks.size();
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
@@ -45,7 +122,12 @@ public class TaskList {
      * @return {@code true} if empty
      */
     public boolean isEmpty() {
-        return tasks.isEmpty();
+        readLock.lock();
+        try {
+            return tasks.isEmpty();
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
@@ -55,7 +137,41 @@ public class TaskList {
      */
     public void add(Task t) {
         assert t != null : "added task must not be null";
+        writeLock.lock();
+        try {
+            append(t);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a task to the end of the list unless a duplicate is already in
+     * it, checking and adding in one step.
+     *
+     * @param t task to add
+     * @return true if the task was added
+     */
+    public boolean addIfAbsent(Task t) {
+        assert t != null : "added task must not be null";
+        writeLock.lock();
+        try {
+            buildIndex(Index.DUPLICATES);
+            if (duplicates.contains(t, this::taskWithId)) {
+                return false;
+            }
+            append(t);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void append(Task t) {
         tasks.add(t);
+        if (ids != null) {
+            addToIndexes(t);
+        }
     }
 
     /**
@@ -66,7 +182,12 @@ public class TaskList {
      */
     public boolean contains(Task t) {
         assert t != null : "task to check must not be null";
-        return tasks.contains(t);
+        lockIndexed(Index.DUPLICATES);
+        try {
+            return duplicates.contains(t, this::taskWithId);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
@@ -77,8 +198,17 @@ public class TaskList {
      * @throws IndexOutOfBoundsException if {@code idx} is out of range
      */
     public Task remove(int idx) {
-        assert idx >= 0 && idx < tasks.size() : "remove index out of range";
-        return tasks.remove(idx);
+        writeLock.lock();
+        try {
+            assert idx >= 0 && idx < tasks.size() : "remove index out of range";
+            Task removed = tasks.remove(idx);
+            if (ids != null) {
+                removeFromIndexes(idx, removed);
+            }
+            return removed;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -89,18 +219,28 @@ public class TaskList {
      * @throws IndexOutOfBoundsException if {@code idx} is out of range
      */
     public Task get(int idx) {
-        assert idx >= 0 && idx < tasks.size() : "get index out of range";
-        return tasks.get(idx);
+        readLock.lock();
+        try {
+            assert idx >= 0 && idx < tasks.size() : "get index out of range";
+            return tasks.get(idx);
+        } finally {
+            readLock.unlock();
+        }
     }
 
     /**
-     * Marks the task at the given index as done.
+     * Marks the task at the given index as done. Completion status is not
+     * part of a task's identity, so the indexes are unaffected.
      *
      * @param idx zero-based index
      */
     public void mark(int idx) {
-        assert idx >= 0 && idx < tasks.size() : "mark index out of range";
-        tasks.get(idx).mark();
+        writeLock.lock();
+        try {
+            setDone(idx, true);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     /**
@@ -109,17 +249,362 @@ public class TaskList {
      * @param idx zero-based index
      */
     public void unmark(int idx) {
-        assert idx >= 0 && idx < tasks.size() : "unmark index out of range";
-        tasks.get(idx).unmark();
+        writeLock.lock();
+        try {
+            setDone(idx, false);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void setDone(int idx, boolean isDone) {
+        assert idx >= 0 && idx < tasks.size() : "mark index out of range";
+        tasks.set(idx, tasks.get(idx).withDone(isDone));
+    }
+
+    /**
+     * Returns the positions of the tasks that are done.
+     *
+     * @return zero-based indexes of done tasks
+     */
+    public BitSet doneTasks() {
+        readLock.lock();
+        try {
+            BitSet out = new BitSet(tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                if (tasks.get(i).isDone) {
+                    out.set(i);
+                }
+            }
+            return out;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Marks the tasks at the given indexes as done.
+     *
+     * @param indexes zero-based indexes, all within the list
+     */
+    public void markAll(BitSet indexes) {
+        setAllDone(indexes, true);
+    }
+
+    /**
+     * Marks the tasks at the given indexes as not done.
+     *
+     * @param indexes zero-based indexes, all within the list
+     */
+    public void unmarkAll(BitSet indexes) {
+        setAllDone(indexes, false);
+    }
+
+    private void setAllDone(BitSet indexes, boolean isDone) {
+        writeLock.lock();
+        try {
+            for (int idx = indexes.nextSetBit(0); idx >= 0; idx = indexes.nextSetBit(idx + 1)) {
+                setDone(idx, isDone);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the tasks at the given indexes as one operation. The list is
+     * compacted in a single pass; when many tasks go, the indexes are rebuilt
+     * on the next query rather than updated task by task.
+     *
+     * @param indexes zero-based indexes, all within the list
+     * @return number of tasks removed
+     */
+    public int removeAll(BitSet indexes) {
+        writeLock.lock();
+        try {
+            assert indexes.length() <= tasks.size() : "remove index out of range";
+            int count = indexes.cardinality();
+            if (ids != null && count <= MAX_INDEXED_REMOVALS) {
+                // Highest first, so the positions of the rest stay valid.
+                for (int idx = indexes.previousSetBit(indexes.length() - 1); idx >= 0;
+                        idx = indexes.previousSetBit(idx - 1)) {
+                    removeFromIndexes(idx, tasks.get(idx));
+                }
+            } else if (ids != null) {
+                resetIndexes();
+            }
+            removeAll(tasks, indexes);
+            return count;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the tasks at the given indexes in one pass, moving the
+     * remaining tasks up instead of shifting the list once per removal.
+     * Paged and compact lists remove them themselves: moving tasks up
+     * would pin every paged task after the first removal in memory, and
+     * rebuild and re-store every compact one.
+     *
+     * @param tasks   list to remove from
+     * @param indexes zero-based indexes to remove, all within the list
+     */
+    static void removeAll(List<Task> tasks, BitSet indexes) {
+        if (tasks instanceof PagedTaskList) {
+            ((PagedTaskList) tasks).removeAll(indexes);
+            return;
+        }
+        if (tasks instanceof CompactTaskList) {
+            ((CompactTaskList) tasks).removeAll(indexes);
+            return;
+        }
+        int first = indexes.nextSetBit(0);
+        if (first < 0) {
+            return;
+        }
+        assert indexes.length() <= tasks.size() : "index out of range";
+        int write = first;
+        for (int read = indexes.nextClearBit(first); read < tasks.size(); read = indexes.nextClearBit(read + 1)) {
+            tasks.set(write++, tasks.get(read));
+        }
+        tasks.subList(write, tasks.size()).clear();
+    }
+
+    /**
+     * Starts a batch of changes that can be undone together with
+     * {@link #rollbackBatch()}.
+     */
+    public void beginBatch() {
+        writeLock.lock();
+        try {
+            assert checkpoint == null : "a batch is already open";
+            checkpoint = PagedTaskList.copyOf(tasks);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Keeps the changes made since {@link #beginBatch()}.
+     */
+    public void commitBatch() {
+        writeLock.lock();
+        try {
+            assert checkpoint != null : "no batch is open";
+            checkpoint = null;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Undoes every change made since {@link #beginBatch()}. The indexes are
+     * rebuilt the next time a query needs them.
+     */
+    public void rollbackBatch() {
+        writeLock.lock();
+        try {
+            assert checkpoint != null : "no batch is open";
+            // Marking replaces tasks rather than changing them, so the copy is as it was.
+            tasks = checkpoint;
+            checkpoint = null;
+            resetIndexes();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void resetIndexes() {
+        ids = null;
+        duplicates = null;
+        keywords = null;
+        deadlines = null;
+        events = null;
+        nextId = 0;
     }
 
     /**
-     * Returns a live view of the underlying list (used for persistence).
+     * Returns whether a batch is open.
      *
-     * @return backing list of tasks
+     * @return {@code true} between {@link #beginBatch()} and its commit or rollback
+     */
+    public boolean isBatching() {
+        readLock.lock();
+        try {
+            return checkpoint != null;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a read-only live view of the underlying list (used for persistence).
+     * Mutations must go through this class so the index stays in step. Each
+     * read of the view is safe on its own, but the list may change between
+     * reads, so code that walks the whole list from another thread should use
+     * {@link #snapshotOf(List)} first, as {@link Storage#save(List)} does.
+     *
+     * @return unmodifiable view of the tasks
      */
     public List<Task> asList() {
-        return tasks;
+        return view;
+    }
+
+    /**
+     * Returns a copy of the tasks that can be changed independently of this
+     * list. A lazily loaded list is copied without being read in full.
+     *
+     * @return mutable copy of the tasks
+     */
+    List<Task> snapshot() {
+        readLock.lock();
+        try {
+            return PagedTaskList.copyOf(tasks);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a list that will not change while it is read: a
+     * {@link #snapshot()} for a view from {@link #asList()}, or the list
+     * itself otherwise.
+     *
+     * @param tasks list to read
+     * @return list that is safe to walk
+     */
+    static List<Task> snapshotOf(List<Task> tasks) {
+        return tasks instanceof View ? ((View) tasks).owner().snapshot() : tasks;
+    }
+
+    // Takes the read lock with the given index built, building it first if
+    // needed. The read lock cannot be upgraded, so it is dropped while the
+    // index is built, and the check is repeated in case a writer reset the
+    // indexes in between.
+    private void lockIndexed(Index index) {
+        readLock.lock();
+        while (!isBuilt(index)) {
+            readLock.unlock();
+            writeLock.lock();
+            try {
+                buildIndex(index);
+            } finally {
+                writeLock.unlock();
+            }
+            readLock.lock();
+        }
+    }
+
+    private boolean isBuilt(Index index) {
+        switch (index) {
+        case DUPLICATES:
+            return duplicates != null;
+        case KEYWORDS:
+            return keywords != null;
+        case DEADLINES:
+            return deadlines != null;
+        default:
+            return events != null;
+        }
+    }
+
+    // Builds one index from the whole list, numbering the tasks first if no
+    // other index has. Must be called with the write lock held.
+    private void buildIndex(Index index) {
+        if (isBuilt(index)) {
+            return;
+        }
+        if (ids == null) {
+            ids = new IntList();
+            for (int i = 0; i < tasks.size(); i++) {
+                ids.add(nextId++);
+            }
+        }
+        switch (index) {
+        case DUPLICATES:
+            duplicates = new DuplicateIndex();
+            break;
+        case KEYWORDS:
+            keywords = new KeywordIndex();
+            break;
+        case DEADLINES:
+            deadlines = new DeadlineIndex();
+            break;
+        default:
+            events = new EventIndex();
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            addToIndex(index, ids.get(i), tasks.get(i));
+        }
+    }
+
+    private Task taskWithId(int id) {
+        int idx = ids.indexOfSorted(id);
+        assert idx >= 0 : "index refers to a removed task";
+        return tasks.get(idx);
+    }
+
+    // Gives an appended task the next id and adds it to the indexes built so far.
+    private void addToIndexes(Task t) {
+        int id = nextId++;
+        ids.add(id);
+        for (Index index : Index.values()) {
+            if (isBuilt(index)) {
+                addToIndex(index, id, t);
+            }
+        }
+    }
+
+    // A loaded save file may already hold duplicates, so each copy is indexed.
+    private void addToIndex(Index index, int id, Task t) {
+        switch (index) {
+        case DUPLICATES:
+            duplicates.add(id, t);
+            break;
+        case KEYWORDS:
+            keywords.add(id, t.description);
+            break;
+        case DEADLINES:
+            if (t instanceof Deadline) {
+                deadlines.add(id, ((Deadline) t).getBy());
+            }
+            break;
+        default:
+            if (t instanceof Event && ((Event) t).hasWindow()) {
+                Event e = (Event) t;
+                events.add(id, toSeconds(e.getStart()), toSeconds(e.getEnd()));
+            }
+        }
+    }
+
+    private void removeFromIndexes(int idx, Task t) {
+        int id = ids.removeAt(idx);
+        if (duplicates != null) {
+            duplicates.remove(id, t);
+        }
+        if (keywords != null) {
+            keywords.remove(id, t.description);
+        }
+        if (deadlines != null && t instanceof Deadline) {
+            deadlines.remove(id, ((Deadline) t).getBy());
+        }
+        if (events != null && t instanceof Event && ((Event) t).hasWindow()) {
+            events.remove(id, toSeconds(((Event) t).getStart()));
+        }
+    }
+
+    private static long toSeconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // Maps task ids back to the tasks, keeping the order of the given ids.
+    private List<Task> resolve(int[] hits) {
+        List<Task> out = new ArrayList<>(hits.length);
+        for (int id : hits) {
+            out.add(taskWithId(id));
+        }
+        return out;
     }
 
     /**
@@ -128,36 +613,178 @@ public class TaskList {
      * @return multi-line string containing the numbered list of tasks
      */
     public String formatList() {
-        if (tasks.isEmpty()) {
-            return NO_TASKS_MESSAGE;
-        }
+        return listPage(1, 0).render();
+    }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append(TASKS_LIST_HEADER).append(System.lineSeparator());
-        for (int i = 0; i < tasks.size(); i++) {
-            sb.append(String.format("%d.%s%n", i + USER_DISPLAY_OFFSET, tasks.get(i)));
+    /**
+     * Returns one page of the numbered task list. Only the tasks on that
+     * page are read.
+     *
+     * @param page one-based page number, at most {@link TaskPage#pageCount(int, int)}
+     * @param size tasks per page, or 0 for the whole list
+     * @return the requested page
+     */
+    public TaskPage listPage(int page, int size) {
+        readLock.lock();
+        try {
+            return TaskPage.of(TASKS_LIST_HEADER, NO_TASKS_MESSAGE, tasks, page, size);
+        } finally {
+            readLock.unlock();
         }
-        return sb.toString().trim();
     }
 
     /**
      * Returns all tasks whose descriptions contain the given keyword
-     * (case-insensitive).
+     * (case-insensitive). Keywords made of letters and digits are answered
+     * from the keyword index; anything else falls back to a scan.
      *
      * @param keyword keyword to search for
      * @return list of matching tasks (order preserved)
      */
     public java.util.List<Task> find(String keyword) {
-        java.util.ArrayList<Task> out = new java.util.ArrayList<>();
-        String k = keyword.toLowerCase();
-        for (Task t : tasks) {
-            if (t.description.toLowerCase().contains(k)) {
-                out.add(t);
+        lockIndexed(Index.KEYWORDS);
+        try {
+            int[] hits = keywords.containing(keyword);
+            if (hits != null) {
+                return resolve(hits);
             }
+
+            java.util.ArrayList<Task> out = new java.util.ArrayList<>();
+            String k = keyword.toLowerCase();
+            for (Task t : tasks) {
+                if (t.description.toLowerCase().contains(k)) {
+                    out.add(t);
+                }
+            }
+            return out;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns all tasks whose descriptions contain every one of the given
+     * words (case-insensitive, whole words).
+     *
+     * @param words space-separated words to search for
+     * @return list of matching tasks (order preserved)
+     */
+    public List<Task> findAll(String words) {
+        assert words != null : "words must not be null";
+        lockIndexed(Index.KEYWORDS);
+        try {
+            return resolve(keywords.matchingAll(words));
+        } finally {
+            readLock.unlock();
         }
-        return out;
     }
 
+    /**
+     * Returns all tasks whose descriptions contain at least one of the given
+     * words (case-insensitive, whole words).
+     *
+     * @param words space-separated words to search for
+     * @return list of matching tasks (order preserved)
+     */
+    public List<Task> findAny(String words) {
+        assert words != null : "words must not be null";
+        lockIndexed(Index.KEYWORDS);
+        try {
+            return resolve(keywords.matchingAny(words));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+
+    /**
+     * Returns the deadlines due on the given date, in list order.
+     *
+     * @param date due date to look up
+     * @return matching deadlines
+     */
+    public List<Task> dueOn(LocalDate date) {
+        assert date != null : "date must not be null";
+        lockIndexed(Index.DEADLINES);
+        try {
+            return resolve(deadlines.on(date));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the deadlines due between two dates (both inclusive), earliest first.
+     *
+     * @param from first due date to include
+     * @param to   last due date to include
+     * @return matching deadlines, ordered by due date and then list order
+     */
+    public List<Task> dueBetween(LocalDate from, LocalDate to) {
+        assert from != null && to != null : "dates must not be null";
+        assert !from.isAfter(to) : "range must not be reversed";
+        lockIndexed(Index.DEADLINES);
+        try {
+            return resolve(deadlines.between(from, to));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the deadlines that are not done and were due before the given day.
+     *
+     * @param today the current date
+     * @return overdue deadlines, oldest first
+     */
+    public List<Task> overdue(LocalDate today) {
+        assert today != null : "today must not be null";
+        lockIndexed(Index.DEADLINES);
+        try {
+            List<Task> out = resolve(deadlines.before(today));
+            out.removeIf(t -> t.isDone);
+            return out;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the events in this list whose time window overlaps the given
+     * event's. Events without parsed times never clash.
+     *
+     * @param e event to check
+     * @return clashing events, ordered by start time
+     */
+    public List<Task> clashesWith(Event e) {
+        assert e != null : "event must not be null";
+        if (!e.hasWindow()) {
+            return new ArrayList<>();
+        }
+        lockIndexed(Index.EVENTS);
+        try {
+            return resolve(events.overlapping(toSeconds(e.getStart()), toSeconds(e.getEnd())));
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the events taking place (at least partly) on the given day.
+     *
+     * @param date day to look up
+     * @return events overlapping that day, ordered by start time
+     */
+    public List<Task> eventsOn(LocalDate date) {
+        assert date != null : "date must not be null";
+        lockIndexed(Index.EVENTS);
+        try {
+            return resolve(events.overlapping(toSeconds(date.atStartOfDay()),
+                    toSeconds(date.plusDays(1).atStartOfDay())));
+        } finally {
+            readLock.unlock();
+        }
+    }
 
     /**
      * Formats the matching tasks in the same style used by the examples.
@@ -168,16 +795,47 @@ public class TaskList {
      */
     public String formatMatches(String keyword) {
         assert keyword != null : "keyword must not be null";
-        java.util.List<Task> matches = find(keyword);
-        if (matches.isEmpty()) {
-            return NO_MATCHING_TASKS_MESSAGE;
+        return formatMatches(find(keyword));
+    }
+
+    /**
+     * Formats the given matches in the same style as {@link #formatMatches(String)}.
+     *
+     * @param matches tasks to show, in order
+     * @return multi-line formatted result, or "(no matching tasks)" if none
+     */
+    public String formatMatches(List<Task> matches) {
+        return matchPage(matches, 1, 0).render();
+    }
+
+    /**
+     * Returns one page of the given matches, numbered within the matches.
+     *
+     * @param matches tasks to show, in order
+     * @param page    one-based page number, at most {@link TaskPage#pageCount(int, int)}
+     * @param size    tasks per page, or 0 for all matches
+     * @return the requested page
+     */
+    public TaskPage matchPage(List<Task> matches, int page, int size) {
+        assert matches != null : "matches must not be null";
+        return TaskPage.of(MATCHING_TASKS_HEADER, NO_MATCHING_TASKS_MESSAGE, matches, page, size);
+    }
+
+    // Read-only view of the current list for asList(). It reads through the
+    // lock, and follows the list if a rollback replaces it.
+    private class View extends AbstractList<Task> implements RandomAccess {
+        @Override
+        public Task get(int idx) {
+            return TaskList.this.get(idx);
         }
-        StringBuilder sb = new StringBuilder();
-        sb.append(MATCHING_TASKS_HEADER)
-                .append(System.lineSeparator());
-        for (int i = 0; i < matches.size(); i++) {
-            sb.append(String.format("%d.%s%n", i + USER_DISPLAY_OFFSET, matches.get(i)));
+
+        @Override
+        public int size() {
+            return TaskList.this.size();
+        }
+
+        TaskList owner() {
+            return TaskList.this;
         }
-        return sb.toString().trim();
     }
 }
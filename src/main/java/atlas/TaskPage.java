@@ -0,0 +1,122 @@
+package atlas;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a numbered task listing, such as the output of {@code list}
+ * or {@code find}.
+ * <p>
+ * A page can be written line by line to a console writer without building
+ * the whole listing as one string, or rendered to a string when a caller
+ * (such as the GUI) needs one. Tasks are numbered by their position in the
+ * full listing, so the numbers on page 3 carry on from page 2.
+ */
+public class TaskPage {
+    private static final int USER_DISPLAY_OFFSET = 1; // Convert 0-based to 1-based indexing
+
+    private final String header;
+    private final String emptyMessage;
+    private final List<Task> items;
+    private final int firstIndex;
+    private final int page;
+    private final int pageCount;
+    private final int total;
+    private final boolean isPaged;
+
+    private TaskPage(String header, String emptyMessage, List<Task> items, int firstIndex,
+            int page, int pageCount, int total, boolean isPaged) {
+        this.header = header;
+        this.emptyMessage = emptyMessage;
+        this.items = items;
+        this.firstIndex = firstIndex;
+        this.page = page;
+        this.pageCount = pageCount;
+        this.total = total;
+        this.isPaged = isPaged;
+    }
+
+    /**
+     * Cuts one page out of the given tasks. Only the tasks on that page are
+     * read (and copied), so the page stays valid if the list changes later.
+     *
+     * @param header       line shown above the tasks
+     * @param emptyMessage text shown instead when there are no tasks
+     * @param tasks        full listing
+     * @param page         one-based page number, at most {@link #pageCount(int, int)}
+     * @param size         tasks per page, or 0 to show every task without a page footer
+     * @return the requested page
+     */
+    static TaskPage of(String header, String emptyMessage, List<Task> tasks, int page, int size) {
+        assert size >= 0 : "page size must not be negative";
+        int total = tasks.size();
+        int pageCount = pageCount(total, size);
+        assert page >= 1 && page <= pageCount : "page out of range";
+        int from = size == 0 ? 0 : (page - 1) * size;
+        int to = size == 0 ? total : Math.min(total, from + size);
+        return new TaskPage(header, emptyMessage, new ArrayList<>(tasks.subList(from, to)), from,
+                page, pageCount, total, size != 0);
+    }
+
+    /**
+     * Returns how many pages of the given size a listing needs. An empty
+     * listing still has one (empty) page.
+     *
+     * @param total number of tasks in the listing
+     * @param size  tasks per page, or 0 for a single page
+     * @return number of pages
+     */
+    static int pageCount(int total, int size) {
+        if (size == 0 || total == 0) {
+            return 1;
+        }
+        return (total + size - 1) / size;
+    }
+
+    /**
+     * Writes the page one line at a time, each prefixed with {@code indent}.
+     *
+     * @param out    writer to print to
+     * @param indent text to put before every line
+     */
+    public void writeTo(PrintWriter out, String indent) {
+        if (items.isEmpty()) {
+            out.print(indent);
+            out.println(emptyMessage);
+            return;
+        }
+        out.print(indent);
+        out.println(header);
+        for (int i = 0; i < items.size(); i++) {
+            out.print(indent);
+            out.print(firstIndex + i + USER_DISPLAY_OFFSET);
+            out.print('.');
+            out.println(items.get(i));
+        }
+        if (isPaged) {
+            out.print(indent);
+            out.print("(page ");
+            out.print(page);
+            out.print(" of ");
+            out.print(pageCount);
+            out.print(", ");
+            out.print(total);
+            out.println(" tasks in total; use --page <n> to see another page)");
+        }
+    }
+
+    /**
+     * Renders the page as one string, with lines separated by the system
+     * line separator and no trailing newline.
+     *
+     * @return the page as text
+     */
+    public String render() {
+        StringWriter text = new StringWriter();
+        writeTo(new PrintWriter(text), "");
+        String s = text.toString();
+        return s.substring(0, s.length() - System.lineSeparator().length());
+    }
+}
@@ -0,0 +1,458 @@
+package atlas;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads the text save format: one task per line, with pipe-separated fields
+ * such as {@code D | 1 | return book | 2025-10-15}.
+ * <p>
+ * Save files are read a window at a time into one reusable buffer and split
+ * into lines and fields straight from its bytes, so the file is never copied
+ * onto the heap as a whole. The file is not memory-mapped: a mapping lasts
+ * until it is garbage collected, and on Windows the save file cannot be
+ * replaced while it is mapped. Only the fields a task keeps are decoded into
+ * strings; the type and status fields are compared as bytes. The result is the same as reading the file
+ * with {@link java.nio.file.Files#readAllLines(Path)} and passing each line
+ * to {@link #parse(String)}.
+ * <p>
+ * Large files are cut into chunks at line breaks and the chunks are parsed in
+ * parallel on the common fork-join pool; the results are joined back in file
+ * order, so task numbering is the same as for a sequential read.
+ */
+class TextFormat {
+    // Named constants for array indices
+    private static final int TYPE_INDEX = 0;
+    private static final int STATUS_INDEX = 1;
+    private static final int DESCRIPTION_INDEX = 2;
+    private static final int DATE_INDEX = 3;
+    private static final int FROM_INDEX = 3;
+    private static final int TO_INDEX = 4;
+
+    // Task type constants
+    private static final String TODO_TYPE = "T";
+    private static final String DEADLINE_TYPE = "D";
+    private static final String EVENT_TYPE = "E";
+    private static final String DONE_STATUS = "1";
+
+    // Files are read in windows of this size; no line may be longer.
+    private static final int WINDOW_BYTES = 16 * 1024 * 1024;
+    private static final int ISO_DATE_LENGTH = 10; // "yyyy-MM-dd".length()
+
+    // Below this size a file is parsed on the calling thread.
+    private static final int MIN_CHUNK_BYTES = 1024 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private TextFormat() {
+    }
+
+    /**
+     * Parses a single save line; invalid lines give {@code null}.
+     */
+    static Task parse(String line) {
+        if (line == null || line.trim().isEmpty()) {
+            return null;
+        }
+
+        String[] parts = line.split("\\s*\\|\\s*");
+        if (parts.length < 3) {
+            return null;
+        }
+
+        try {
+            return createTaskFromParts(parts);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static Task createTaskFromParts(String[] parts) {
+        String type = parts[TYPE_INDEX];
+        boolean done = DONE_STATUS.equals(parts[STATUS_INDEX]);
+
+        Task task = switch (type) {
+            case TODO_TYPE -> new Todo(parts[DESCRIPTION_INDEX]);
+            case DEADLINE_TYPE -> new Deadline(parts[DESCRIPTION_INDEX], parts[DATE_INDEX]);
+            case EVENT_TYPE -> new Event(parts[DESCRIPTION_INDEX], parts[FROM_INDEX], parts[TO_INDEX]);
+            default -> null;
+        };
+
+        if (task != null && done) {
+            task.mark();
+        }
+
+        return task;
+    }
+
+    /**
+     * Reads every task from a text save file.
+     *
+     * @param file save file to read
+     * @param out  list to append the tasks to
+     * @return number of non-blank lines that could not be parsed
+     * @throws IOException if the file cannot be read or is not valid UTF-8
+     */
+    static int read(Path file, List<Task> out) throws IOException {
+        int skipped = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer window = ByteBuffer.allocate((int) Math.max(1, Math.min(WINDOW_BYTES, channel.size())));
+            boolean isAtEnd = false;
+            while (!isAtEnd) {
+                isAtEnd = fill(channel, window);
+                int length = window.position();
+                int end = isAtEnd ? length : afterLastLineBreak(window, length);
+                if (end == 0 && length == window.capacity()) {
+                    throw new IOException("Save file has a line longer than " + WINDOW_BYTES + " bytes");
+                }
+                skipped += parseWindow(window, end, out);
+                // Moves the unfinished last line to the front for the next read.
+                window.limit(length).position(end);
+                window.compact();
+            }
+        }
+        return skipped;
+    }
+
+    // Reads until the buffer is full, returning whether the file ended first.
+    private static boolean fill(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Parses [0, end) of a window, in parallel chunks if it is large enough.
+    private static int parseWindow(ByteBuffer window, int end, List<Task> out) throws IOException {
+        int[] bounds = chunkBounds(window, end);
+        int chunks = bounds.length - 1;
+        if (chunks == 1) {
+            return new LineParser().parseLines(window, 0, end, out);
+        }
+
+        List<List<Task>> results = new ArrayList<>(chunks);
+        int[] skipped = new int[chunks];
+        for (int i = 0; i < chunks; i++) {
+            results.add(new ArrayList<>());
+        }
+        try {
+            ForkJoinPool.commonPool().invoke(new ParseChunks(window, bounds, 0, chunks, results, skipped));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        int total = 0;
+        for (int i = 0; i < chunks; i++) {
+            out.addAll(results.get(i));
+            total += skipped[i];
+        }
+        return total;
+    }
+
+    // Cuts [0, end) into roughly equal chunks that each start at the beginning of a line.
+    private static int[] chunkBounds(ByteBuffer buffer, int end) {
+        int threads = ForkJoinPool.getCommonPoolParallelism();
+        int target = Math.max(MIN_CHUNK_BYTES, end / Math.max(1, threads * CHUNKS_PER_THREAD));
+        if (threads <= 1 || end <= target) {
+            return new int[] {0, end};
+        }
+
+        IntList bounds = new IntList();
+        bounds.add(0);
+        int pos = target;
+        while (pos < end) {
+            while (pos < end && buffer.get(pos - 1) != '\n' && buffer.get(pos - 1) != '\r') {
+                pos++;
+            }
+            if (pos < end && buffer.get(pos - 1) == '\r' && buffer.get(pos) == '\n') {
+                pos++;
+            }
+            if (pos >= end) {
+                break;
+            }
+            bounds.add(pos);
+            pos += target;
+        }
+        bounds.add(end);
+        return bounds.toArray();
+    }
+
+    /**
+     * Parses a range of chunks, splitting it in half until one chunk is left.
+     * Each chunk fills its own result list, so no locking is needed.
+     */
+    private static class ParseChunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer buffer;
+        private final int[] bounds;
+        private final int from;
+        private final int to;
+        private final List<List<Task>> results;
+        private final int[] skipped;
+
+        ParseChunks(ByteBuffer buffer, int[] bounds, int from, int to, List<List<Task>> results, int[] skipped) {
+            this.buffer = buffer;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+            this.skipped = skipped;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ParseChunks(buffer, bounds, from, mid, results, skipped),
+                        new ParseChunks(buffer, bounds, mid, to, results, skipped));
+                return;
+            }
+            try {
+                skipped[from] = new LineParser().parseLines(buffer, bounds[from], bounds[from + 1],
+                        results.get(from));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Returns the position just past the last line break in [0, length), or 0 if there is none.
+    private static int afterLastLineBreak(ByteBuffer buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Splits buffered bytes into lines and tasks. Keeps scratch buffers between
+     * lines, so one instance must not be shared between threads.
+     */
+    static class LineParser {
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        private byte[] scratch = new byte[256];
+        private int[] fieldStarts = new int[8];
+        private int[] fieldEnds = new int[8];
+
+        /**
+         * Parses the lines in {@code [from, to)} of the buffer. Lines end at
+         * {@code \n}, {@code \r} or {@code \r\n}, as for
+         * {@link java.nio.file.Files#readAllLines(Path)}.
+         *
+         * @return number of non-blank lines that could not be parsed
+         */
+        int parseLines(ByteBuffer buffer, int from, int to, List<Task> out) throws IOException {
+            int skipped = 0;
+            int lineStart = from;
+            int i = from;
+            while (i < to) {
+                byte b = buffer.get(i);
+                if (b == '\n' || b == '\r') {
+                    skipped += parseInto(buffer, lineStart, i, out);
+                    i += (b == '\r' && i + 1 < to && buffer.get(i + 1) == '\n') ? 2 : 1;
+                    lineStart = i;
+                } else {
+                    i++;
+                }
+            }
+            if (lineStart < to) {
+                skipped += parseInto(buffer, lineStart, to, out);
+            }
+            return skipped;
+        }
+
+        private int parseInto(ByteBuffer buffer, int start, int end, List<Task> out) throws IOException {
+            if (isBlank(buffer, start, end)) {
+                return 0;
+            }
+            Task t = parseLine(buffer, start, end);
+            if (t == null) {
+                return 1;
+            }
+            out.add(t);
+            return 0;
+        }
+
+        // Mirrors parse(String): split(\s*\|\s*) drops the whitespace around
+        // each pipe (not before the first field or after the last one) and
+        // then drops trailing empty fields.
+        private Task parseLine(ByteBuffer buffer, int start, int end) throws IOException {
+            int count = 0;
+            int fieldStart = start;
+            for (int i = start; i <= end; i++) {
+                if (i < end && buffer.get(i) != '|') {
+                    continue;
+                }
+                int s = fieldStart;
+                int e = i;
+                if (count > 0) {
+                    while (s < e && isRegexSpace(buffer.get(s))) {
+                        s++;
+                    }
+                }
+                if (i < end) {
+                    while (e > s && isRegexSpace(buffer.get(e - 1))) {
+                        e--;
+                    }
+                }
+                addField(count++, s, e);
+                fieldStart = i + 1;
+            }
+            if (count > 1) {
+                while (count > 0 && fieldStarts[count - 1] == fieldEnds[count - 1]) {
+                    count--;
+                }
+            }
+            if (count < 3) {
+                return null;
+            }
+
+            try {
+                return createTask(buffer, count);
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        private Task createTask(ByteBuffer buffer, int count) throws IOException {
+            boolean done = isField(buffer, STATUS_INDEX, DONE_STATUS);
+            Task task;
+            if (isField(buffer, TYPE_INDEX, TODO_TYPE)) {
+                task = new Todo(decode(buffer, DESCRIPTION_INDEX));
+            } else if (isField(buffer, TYPE_INDEX, DEADLINE_TYPE)) {
+                String description = decode(buffer, DESCRIPTION_INDEX);
+                checkField(DATE_INDEX, count);
+                LocalDate by = isoDate(buffer, DATE_INDEX);
+                task = by != null ? new Deadline(description, by) : new Deadline(description, decode(buffer, DATE_INDEX));
+            } else if (isField(buffer, TYPE_INDEX, EVENT_TYPE)) {
+                String description = decode(buffer, DESCRIPTION_INDEX);
+                checkField(TO_INDEX, count);
+                task = new Event(description, decode(buffer, FROM_INDEX), decode(buffer, TO_INDEX));
+            } else {
+                return null;
+            }
+
+            if (done) {
+                task.mark();
+            }
+            return task;
+        }
+
+        private static void checkField(int field, int count) {
+            if (field >= count) {
+                throw new ArrayIndexOutOfBoundsException(field);
+            }
+        }
+
+        private void addField(int field, int start, int end) {
+            if (field == fieldStarts.length) {
+                fieldStarts = Arrays.copyOf(fieldStarts, field * 2);
+                fieldEnds = Arrays.copyOf(fieldEnds, field * 2);
+            }
+            fieldStarts[field] = start;
+            fieldEnds[field] = end;
+        }
+
+        private boolean isField(ByteBuffer buffer, int field, String ascii) {
+            int start = fieldStarts[field];
+            if (fieldEnds[field] - start != ascii.length()) {
+                return false;
+            }
+            for (int i = 0; i < ascii.length(); i++) {
+                if (buffer.get(start + i) != ascii.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Reads a plain yyyy-MM-dd field without going through a String;
+        // anything else is left to LocalDate.parse by the caller.
+        private LocalDate isoDate(ByteBuffer buffer, int field) {
+            int s = fieldStarts[field];
+            if (fieldEnds[field] - s != ISO_DATE_LENGTH
+                    || buffer.get(s + 4) != '-' || buffer.get(s + 7) != '-') {
+                return null;
+            }
+            int year = digits(buffer, s, 4);
+            int month = digits(buffer, s + 5, 2);
+            int day = digits(buffer, s + 8, 2);
+            if (year < 0 || month < 0 || day < 0) {
+                return null;
+            }
+            try {
+                return LocalDate.of(year, month, day);
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+
+        private static int digits(ByteBuffer buffer, int start, int length) {
+            int value = 0;
+            for (int i = start; i < start + length; i++) {
+                byte b = buffer.get(i);
+                if (b < '0' || b > '9') {
+                    return -1;
+                }
+                value = value * 10 + (b - '0');
+            }
+            return value;
+        }
+
+        private String decode(ByteBuffer buffer, int field) throws IOException {
+            int start = fieldStarts[field];
+            int length = fieldEnds[field] - start;
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(start, scratch, 0, length);
+
+            boolean isAscii = true;
+            for (int i = 0; i < length && isAscii; i++) {
+                isAscii = scratch[i] >= 0;
+            }
+            if (isAscii) {
+                return new String(scratch, 0, length, StandardCharsets.ISO_8859_1);
+            }
+            // Strict decoding, so bad bytes fail the load as Files.readAllLines would.
+            CharBuffer chars = decoder.decode(ByteBuffer.wrap(scratch, 0, length));
+            return chars.toString();
+        }
+
+        // Same test as String.trim().isEmpty() for the bytes of a line.
+        private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+            for (int i = start; i < end; i++) {
+                if ((buffer.get(i) & 0xFF) > ' ') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // The characters matched by the regex \s: [ \t\n\x0B\f\r].
+        private static boolean isRegexSpace(byte b) {
+            return b == ' ' || b == '\t' || b == '\n' || b == 0x0B || b == '\f' || b == '\r';
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package atlas;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * The conversation shown in the GUI, kept to a bounded number of messages.
+ * <p>
+ * Messages are stored in a list supplied by the caller, such as the items
+ * of a {@code ListView}, so the view follows every change. Once the list
+ * grows past its limit, the oldest messages are let go a chunk at a time.
+ * They are appended to a history file if one is set, and dropped otherwise.
+ */
+class Transcript {
+    private static final String USER_PREFIX = "> ";
+
+    /**
+     * One message in the conversation.
+     */
+    static final class Entry {
+        final String text;
+        final boolean isUser;
+        final String commandType; // null for neutral styling
+
+        private Entry(String text, boolean isUser, String commandType) {
+            assert text != null : "text must not be null";
+            this.text = text;
+            this.isUser = isUser;
+            this.commandType = commandType;
+        }
+
+        static Entry user(String text) {
+            return new Entry(text, true, null);
+        }
+
+        static Entry reply(String text, String commandType) {
+            return new Entry(text, false, commandType);
+        }
+    }
+
+    private final List<Entry> entries;
+    private final int maxEntries;
+    private final int evictionChunk;
+    private Path historyFile; // null once writing to it has failed
+
+    /**
+     * Creates a transcript over the given list.
+     *
+     * @param entries     list to hold the messages, usually empty
+     * @param maxEntries  most messages to keep
+     * @param historyFile file to append old messages to, or null to drop them
+     */
+    Transcript(List<Entry> entries, int maxEntries, Path historyFile) {
+        assert entries != null : "entries must not be null";
+        assert maxEntries > 0 : "transcript must hold at least one message";
+        this.entries = entries;
+        this.maxEntries = maxEntries;
+        // Letting go of a tenth at a time keeps list shifts and file writes rare.
+        this.evictionChunk = Math.max(1, maxEntries / 10);
+        this.historyFile = historyFile;
+    }
+
+    /**
+     * Adds a message at the end.
+     */
+    void add(Entry entry) {
+        entries.add(entry);
+        trim();
+    }
+
+    /**
+     * Adds a message straight after another one, such as a reply after the
+     * command it answers. If that message has already left the transcript,
+     * the new one goes at the end.
+     *
+     * @param anchor message to follow
+     * @param entry  message to add
+     */
+    void addAfter(Entry anchor, Entry entry) {
+        int at = entries.lastIndexOf(anchor);
+        entries.add(at < 0 ? entries.size() : at + 1, entry);
+        trim();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void trim() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        // Trim a chunk below the limit, so this only happens once per chunk of messages.
+        int excess = entries.size() - (maxEntries - evictionChunk);
+        List<Entry> oldest = entries.subList(0, excess);
+        spill(oldest);
+        oldest.clear();
+    }
+
+    private void spill(List<Entry> oldest) {
+        if (historyFile == null) {
+            return;
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(historyFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (Entry e : oldest) {
+                out.write(e.isUser ? USER_PREFIX + e.text : e.text);
+                out.newLine();
+            }
+        } catch (IOException e) {
+            System.err.println("Couldn't write the conversation history: " + e.getMessage());
+            historyFile = null;
+        }
+    }
+}
@@ -1,11 +1,36 @@
 package atlas;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
 /**
  * Handles all user-facing messages and formatting of the chat frame.
+ * <p>
+ * Output goes through one buffered console writer that is flushed after each
+ * message. Task listings are streamed to it line by line; the text of the
+ * last message is only built if {@link #getLast()} asks for it.
  */
 public class Ui {
     private static final String LINE = "____________________________________________________________";
+    private static final String INDENT = " ";
+    private static final int CONSOLE_BUFFER_CHARS = 64 * 1024;
+
+    private final PrintWriter console = new PrintWriter(
+            new BufferedWriter(new OutputStreamWriter(System.out), CONSOLE_BUFFER_CHARS), false);
     private String last;
+    private TaskPage lastPage;
+    private boolean isQuiet = false;
+
+    /**
+     * Sets whether messages are kept for {@link #getLast()} only, without
+     * being printed (used when running a batch file).
+     *
+     * @param isQuiet {@code true} to stop printing messages
+     */
+    public void setQuiet(boolean isQuiet) {
+        this.isQuiet = isQuiet;
+    }
 
     /**
      * Shows arbitrary text inside the standard frame.
@@ -15,11 +40,36 @@ public class Ui {
     public void show(String body) {
         assert body != null : "UI body must not be null";
         last = body;
-        System.out.println(LINE);
+        lastPage = null;
+        if (isQuiet) {
+            return;
+        }
+        console.println(LINE);
         for (String line : body.split("\\R")) {
-            System.out.println(" " + line);
+            console.print(INDENT);
+            console.println(line);
+        }
+        console.println(LINE);
+        console.flush();
+    }
+
+    /**
+     * Shows a page of tasks inside the standard frame, writing it straight
+     * to the console.
+     *
+     * @param page page of tasks to display
+     */
+    public void showTasks(TaskPage page) {
+        assert page != null : "page must not be null";
+        last = null;
+        lastPage = page;
+        if (isQuiet) {
+            return;
         }
-        System.out.println(LINE);
+        console.println(LINE);
+        page.writeTo(console, INDENT);
+        console.println(LINE);
+        console.flush();
     }
 
     /** Shows the greeting message. */
@@ -42,7 +92,16 @@ public class Ui {
         show("Oops - " + msg);
     }
 
+    /**
+     * Returns the text of the last message shown.
+     *
+     * @return last message, or an empty string if nothing was shown yet
+     */
     public String getLast() {
+        if (lastPage != null) {
+            last = lastPage.render();
+            lastPage = null;
+        }
         return last == null ? "" : last;
     }
 }
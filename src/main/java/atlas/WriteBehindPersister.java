@@ -0,0 +1,235 @@
+package atlas;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes task mutations to disk on a dedicated background thread.
+ * <p>
+ * Callers queue journal records (see {@link Storage#addRecord(Task)} and
+ * friends) and return immediately. The writer thread waits a short window
+ * after the first record of a burst, collects everything that arrived in the
+ * meantime and persists the whole group with a single write. It keeps its own
+ * copy of the list, rebuilt from the records, so it never touches the
+ * caller's list. When the queue is full, callers block until there is room.
+ * <p>
+ * A failed write is remembered and rethrown to the next caller of
+ * {@link #submitAll(List)} or {@link #flush()}, so it can be shown through
+ * the {@link Ui} like any other save failure. Its records stay unsaved, and
+ * the next write saves the whole list instead, so they are not lost and
+ * later records are not journalled on top of a file that lacks them.
+ */
+public class WriteBehindPersister {
+    private static final String THREAD_NAME = "atlas-write-behind";
+    private static final long POLL_MILLIS = 5;
+
+    private final Storage storage;
+    private final List<Task> shadow;
+    private final long windowMillis;
+    private final BlockingQueue<String> queue;
+    private final Thread writer;
+    private final Thread shutdownHook;
+
+    // Progress counters, guarded by "this".
+    private long submitted = 0;
+    private long persisted = 0;
+
+    // Records applied to the shadow list whose write failed; writer thread only.
+    private long unwritten = 0;
+
+    private volatile boolean isRunning = true;
+    private volatile boolean isFlushRequested = false;
+    private volatile IOException failure;
+
+    /**
+     * Creates a persister for the given storage. Call {@link #start()} to
+     * begin writing.
+     *
+     * @param storage      storage that performs the actual writes
+     * @param current      task list as it stands now (already on disk)
+     * @param windowMillis how long to wait for more records before writing
+     * @param capacity     maximum number of queued records before callers block
+     */
+    public WriteBehindPersister(Storage storage, List<Task> current, long windowMillis, int capacity) {
+        assert storage != null : "storage must not be null";
+        assert windowMillis >= 0 : "window must not be negative";
+        assert capacity > 0 : "queue capacity must be positive";
+        this.storage = storage;
+        // Tasks already on disk are shared with the caller's list; tasks added
+        // later are rebuilt from their records, so only the done flag can race,
+        // and the matching mark/unmark record always follows.
+        this.shadow = PagedTaskList.copyOf(current);
+        this.windowMillis = windowMillis;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::runWriter, THREAD_NAME);
+        this.writer.setDaemon(true);
+        this.shutdownHook = new Thread(this::closeQuietly, THREAD_NAME + "-shutdown");
+    }
+
+    /**
+     * Starts the writer thread and registers a shutdown hook that flushes
+     * pending records when the JVM exits.
+     */
+    public void start() {
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Queues records for writing, blocking while the queue is full.
+     *
+     * @param records mutation records in the order they were applied
+     * @throws IOException if an earlier background write failed
+     */
+    public void submitAll(List<String> records) throws IOException {
+        rethrowFailure();
+        assert isRunning : "persister has been closed";
+        for (String record : records) {
+            assert record != null : "record must not be null";
+            try {
+                queue.put(record);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while queueing a save", e);
+            }
+            synchronized (this) {
+                submitted++;
+            }
+        }
+    }
+
+    /**
+     * Blocks until every record queued so far has been written.
+     *
+     * @throws IOException if a background write failed
+     */
+    public void flush() throws IOException {
+        isFlushRequested = true;
+        try {
+            synchronized (this) {
+                long target = submitted;
+                while (persisted < target && writer.isAlive() && failure == null) {
+                    wait(POLL_MILLIS);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for saves", e);
+        } finally {
+            isFlushRequested = false;
+        }
+        rethrowFailure();
+    }
+
+    /**
+     * Flushes pending records and stops the writer thread.
+     *
+     * @throws IOException if a background write failed
+     */
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            isRunning = false;
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down: we are running inside the hook.
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            System.err.println("Warning: couldn't save tasks to disk: " + e.getMessage());
+        }
+    }
+
+    private void rethrowFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            failure = null;
+            throw e;
+        }
+    }
+
+    private void runWriter() {
+        List<String> batch = new ArrayList<>();
+        while (isRunning || !queue.isEmpty()) {
+            try {
+                String first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (unwritten > 0 && isFlushRequested) {
+                        writeBatch(batch); // retries the failed write
+                    }
+                    continue;
+                }
+                batch.add(first);
+                collectBurst(batch);
+            } catch (InterruptedException e) {
+                // Keep draining until closed.
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    // Gathers records that arrive within the window after the first one,
+    // cutting the wait short when someone is waiting for a flush.
+    private void collectBurst(List<String> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        while (!isFlushRequested && isRunning) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            String next = queue.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_MILLIS)),
+                    TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+        queue.drainTo(batch);
+    }
+
+    // Writes the batch, or the whole list if an earlier write failed, and
+    // counts the records as persisted only once they are on disk.
+    private void writeBatch(List<String> batch) {
+        if (batch.isEmpty() && unwritten == 0) {
+            return;
+        }
+        for (String record : batch) {
+            storage.apply(record, shadow);
+        }
+        unwritten += batch.size();
+        try {
+            if (unwritten > batch.size()) {
+                storage.save(shadow);
+            } else {
+                storage.writeAll(batch, shadow);
+            }
+        } catch (IOException e) {
+            failure = e;
+            synchronized (this) {
+                notifyAll();
+            }
+            return;
+        }
+        synchronized (this) {
+            persisted += unwritten;
+            unwritten = 0;
+            notifyAll();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package atlas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class CommandLineTest {
+
+    @Test
+    void deadlineLine_splitsCommandArgumentAndMarker() {
+        CommandLine line = CommandLine.parse("  deadline\t return  book /by 2025-10-15  ");
+        assertEquals("deadline", line.command());
+        assertEquals("return  book /by 2025-10-15", line.argument());
+        assertEquals("return  book", line.slice(line.argumentStart(), line.byAt()));
+        assertEquals("2025-10-15", line.slice(line.byAt() + CommandLine.BY_MARKER.length(), line.argumentEnd()));
+        assertEquals(-1, line.fromAt());
+    }
+
+    @Test
+    void randomLines_matchRegexSplitAndIndexOf() {
+        String[] pieces = {" ", "  ", "\t", "\u0001", "todo", "event", "x", "/by", "/from", "/to", " /by ",
+            " /from ", " /to ", "2pm", "\n"};
+        Random random = new Random(15);
+        for (int n = 0; n < 20000; n++) {
+            StringBuilder sb = new StringBuilder();
+            int count = random.nextInt(8);
+            for (int i = 0; i < count; i++) {
+                sb.append(pieces[random.nextInt(pieces.length)]);
+            }
+            String input = sb.toString();
+            CommandLine line = CommandLine.parse(input);
+
+            String trimmed = input.trim();
+            assertEquals(trimmed.isEmpty(), line.isEmpty(), input);
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            String[] parts = trimmed.split("\\s+", 2);
+            assertEquals(parts[0], line.command(), input);
+            assertEquals(parts.length == 2, line.hasArgument(), input);
+            String rest = parts.length == 2 ? parts[1].trim() : "";
+            assertEquals(rest, line.argument(), input);
+
+            int offset = line.argumentStart();
+            assertEquals(rest.indexOf(" /by "), shift(line.byAt(), offset), input);
+            assertEquals(rest.indexOf(" /from "), shift(line.fromAt(), offset), input);
+            assertEquals(rest.indexOf(" /to "), shift(line.toAt(), offset), input);
+        }
+    }
+
+    private static int shift(int at, int offset) {
+        return at < 0 ? at : at - offset;
+    }
+}
@@ -0,0 +1,62 @@
+package atlas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class CommandRunnerTest {
+
+    @Test
+    void replies_arriveInSubmissionOrder_andBusyClearsAfterTheLast() throws Exception {
+        int count = 200;
+        ExecutorService uiThread = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(count);
+        List<String> seen = new ArrayList<>(); // only touched on uiThread
+        List<Boolean> busyAfter = new ArrayList<>();
+        CommandRunner[] runner = new CommandRunner[1];
+        runner[0] = new CommandRunner(input -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (input.equals("boom 7")) {
+                throw new IllegalStateException("boom");
+            }
+            return new CommandRunner.Reply(input, "ok " + input, null);
+        }, uiThread);
+
+        for (int i = 0; i < count; i++) {
+            runner[0].submit((i == 7 ? "boom " : "cmd ") + i, reply -> {
+                seen.add(reply.response);
+                busyAfter.add(runner[0].isBusy());
+                done.countDown();
+            });
+        }
+        assertTrue(runner[0].isBusy());
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        uiThread.shutdown();
+        assertTrue(uiThread.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(count, seen.size());
+        for (int i = 0; i < count; i++) {
+            String expected = i == 7
+                    ? "Sorry, something went wrong while running that command: boom"
+                    : "ok cmd " + i;
+            assertEquals(expected, seen.get(i));
+        }
+        assertTrue(busyAfter.get(count - 2));
+        assertFalse(busyAfter.get(count - 1));
+        assertFalse(runner[0].isBusy());
+        runner[0].shutdown();
+    }
+}
@@ -0,0 +1,182 @@
+package atlas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CompactTaskListTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Task randomTask(Random random, int n) {
+        switch (random.nextInt(3)) {
+        case 0:
+            return new Deadline("return book " + n, LocalDate.of(2025, 1, 1).plusDays(random.nextInt(90)));
+        case 1:
+            return new Event("caf\u00e9 talk " + n, "2025-10-15 14:00", "16:00");
+        default:
+            return new Todo("task " + n);
+        }
+    }
+
+    @Test
+    void storedTasks_comeBackEqual() {
+        CompactTaskList compact = new CompactTaskList();
+        Deadline deadline = new Deadline("return book", "2025-10-15");
+        deadline.mark();
+        Event event = new Event("na\u00efve meetup \u2615", "Mon 2pm", "4pm");
+        compact.add(new Todo("read book"));
+        compact.add(deadline);
+        compact.add(event);
+
+        assertEquals(3, compact.size());
+        assertEquals("[T][ ] read book", compact.get(0).toString());
+        assertEquals(deadline.toSave(), compact.get(1).toSave());
+        assertTrue(compact.get(1).isDone);
+        assertEquals(event, compact.get(2));
+        assertEquals(event.toSave(), compact.get(2).toSave());
+    }
+
+    @Test
+    void randomEdits_matchAnArrayList() {
+        List<Task> expected = new ArrayList<>();
+        CompactTaskList compact = new CompactTaskList();
+        Random random = new Random(7);
+
+        // Enough replacements and removals to compact the arena.
+        for (int step = 0; step < 20000; step++) {
+            int op = random.nextInt(10);
+            if (op < 3 && !expected.isEmpty()) {
+                int idx = random.nextInt(expected.size());
+                assertEquals(expected.remove(idx).toSave(), compact.remove(idx).toSave());
+            } else if (op < 5 && !expected.isEmpty()) {
+                int idx = random.nextInt(expected.size());
+                Task t = expected.get(idx).withDone(random.nextBoolean());
+                expected.set(idx, t);
+                compact.set(idx, t);
+            } else if (op < 6 && !expected.isEmpty()) {
+                int idx = random.nextInt(expected.size());
+                Task t = randomTask(random, step);
+                expected.set(idx, t);
+                compact.set(idx, t);
+            } else if (op < 7) {
+                int idx = random.nextInt(expected.size() + 1);
+                Task t = randomTask(random, step);
+                expected.add(idx, t);
+                compact.add(idx, t);
+            } else {
+                Task t = randomTask(random, step);
+                expected.add(t);
+                compact.add(t);
+            }
+            assertEquals(expected.size(), compact.size());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toSave(), compact.get(i).toSave());
+        }
+    }
+
+    @Test
+    void bulkRemovals_matchAnArrayList() {
+        List<Task> expected = new ArrayList<>();
+        CompactTaskList compact = new CompactTaskList();
+        Random random = new Random(9);
+        for (int i = 0; i < 5000; i++) {
+            Task t = randomTask(random, i).withDone(random.nextBoolean());
+            expected.add(t);
+            compact.add(t);
+        }
+
+        // Runs of removals, so whole stretches move up at once.
+        while (expected.size() > 100) {
+            BitSet indexes = new BitSet();
+            for (int n = random.nextInt(20); n > 0; n--) {
+                int from = random.nextInt(expected.size());
+                indexes.set(from, Math.min(expected.size(), from + 1 + random.nextInt(50)));
+            }
+            TaskList.removeAll(expected, indexes);
+            TaskList.removeAll(compact, indexes);
+            assertEquals(expected.size(), compact.size());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toSave(), compact.get(i).toSave());
+        }
+    }
+
+    @Test
+    void copy_isIndependentOfTheOriginal() {
+        CompactTaskList compact = new CompactTaskList();
+        for (int i = 0; i < 100; i++) {
+            compact.add(new Todo("task " + i));
+        }
+        CompactTaskList copy = compact.copy();
+
+        compact.set(0, new Todo("renamed"));
+        compact.set(1, compact.get(1).withDone(true));
+        compact.remove(2);
+        copy.add(new Todo("only in the copy"));
+
+        assertEquals("task 0", copy.get(0).description);
+        assertFalse(copy.get(1).isDone);
+        assertEquals("task 2", copy.get(2).description);
+        assertEquals(101, copy.size());
+        assertEquals("renamed", compact.get(0).description);
+        assertEquals("task 3", compact.get(2).description);
+        assertEquals(99, compact.size());
+    }
+
+    @Test
+    void backedTaskList_supportsBulkEditsAndBatches() {
+        TaskList list = TaskList.backedBy(new CompactTaskList());
+        for (int i = 0; i < 200; i++) {
+            list.add(new Todo("task " + i));
+        }
+        list.add(new Deadline("return book", "2025-10-15"));
+
+        BitSet even = new BitSet();
+        for (int i = 0; i < 200; i += 2) {
+            even.set(i);
+        }
+        list.markAll(even);
+        assertEquals(even, list.doneTasks());
+
+        list.beginBatch();
+        assertEquals(100, list.removeAll(even));
+        assertEquals("task 1", list.get(0).description);
+        assertTrue(list.doneTasks().isEmpty());
+        list.rollbackBatch();
+
+        assertEquals(201, list.size());
+        assertTrue(list.get(0).isDone);
+        assertEquals(1, list.dueOn(LocalDate.of(2025, 10, 15)).size());
+        assertTrue(list.contains(new Todo("task 7")));
+    }
+
+    @Test
+    void loadCompact_readsWhatWasSaved() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            tasks.add(randomTask(random, i).withDone(i % 3 == 0));
+        }
+        Storage storage = new Storage(tempDir.resolve("duke.txt").toString());
+        storage.save(tasks);
+
+        List<Task> loaded = storage.loadCompact();
+        assertTrue(loaded instanceof CompactTaskList);
+        assertEquals(tasks.size(), loaded.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals(tasks.get(i).toSave(), loaded.get(i).toSave());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package atlas;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+
+/**
+ * Measures how long it takes to build the dialog box for one message,
+ * parsing the FXML for every box as the GUI used to, and copying the
+ * prototype as {@link DialogFactory} does, against reusing one box as the
+ * cells of the conversation do. It first checks that a copy is laid out
+ * like a box loaded from FXML, so run it after editing DialogBox.fxml.
+ * <p>
+ * This is not a unit test; it needs a display and is run by hand with
+ * {@code ./gradlew dialogBenchmark}.
+ */
+public class DialogBoxBenchmark {
+    private static final int WARMUP_MESSAGES = 2_000;
+    private static final int MEASURED_MESSAGES = 10_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.startup(() -> {
+            try {
+                if (!DialogFactory.create().hasSameLayout(DialogBox.loadFromFxml())) {
+                    throw new AssertionError("DialogBox copy no longer matches DialogBox.fxml");
+                }
+                Image img = DialogFactory.userImage();
+                DialogBox reused = DialogFactory.create();
+                report("fxml per message", DialogBox::loadFromFxml, img);
+                report("prototype copy", DialogFactory::create, img);
+                report("reused box", () -> reused, img);
+            } finally {
+                done.countDown();
+            }
+        });
+        done.await();
+        Platform.exit();
+    }
+
+    private static void report(String name, Supplier<DialogBox> boxes, Image img) {
+        run(boxes, img, WARMUP_MESSAGES);
+        long start = System.nanoTime();
+        run(boxes, img, MEASURED_MESSAGES);
+        double micros = (System.nanoTime() - start) / 1_000.0 / MEASURED_MESSAGES;
+        System.out.printf("%-18s %8.1f us/message%n", name, micros);
+    }
+
+    private static void run(Supplier<DialogBox> boxes, Image img, int count) {
+        for (int i = 0; i < count; i++) {
+            boxes.get().setMessage("message " + i, img, i % 2 == 0, "AddCommand");
+        }
+    }
+}
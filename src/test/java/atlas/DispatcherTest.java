@@ -0,0 +1,99 @@
+package atlas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DispatcherTest {
+
+    @TempDir Path tmp;
+
+    @Test
+    void stages_runSeparately_andCommandsCanBeReused() throws Exception {
+        Path file = tmp.resolve("duke.txt");
+        Storage storage = new Storage(file.toString());
+        Dispatcher dispatcher = new Dispatcher(Parser.defaultRegistry());
+        ParserHappyPathTest.TestUi ui = new ParserHappyPathTest.TestUi();
+
+        // Parsing checks the input but leaves the list alone.
+        Command add = dispatcher.parse(CommandLine.parse("todo read book"));
+        TaskList first = new TaskList();
+        TaskList second = new TaskList();
+        assertEquals(0, first.size());
+
+        CommandResult result = dispatcher.execute(add, first, storage);
+        assertEquals(1, first.size());
+        assertNull(ui.last);
+        assertEquals(1, result.records().size());
+        assertFalse(Files.exists(file));
+
+        dispatcher.render(result, ui);
+        assertEquals("Got it. I've added this task:\n " + first.get(0)
+                + "\nNow you have 1 tasks in the list.", ui.last);
+        dispatcher.persist(result, first, storage);
+        assertTrue(Files.exists(file));
+
+        // The same command builds a new task each time it runs.
+        dispatcher.execute(add, second, storage);
+        first.mark(0);
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals(" ", second.get(0).getStatusIcon());
+
+        // Range checks need the list, so they happen when the command runs.
+        Command mark = dispatcher.parse(CommandLine.parse("mark 2"));
+        AtlasException ex = assertThrows(AtlasException.class, () -> dispatcher.execute(mark, first, storage));
+        assertEquals("Task 2 is out of range (1..1).", ex.getMessage());
+    }
+
+    @Test
+    void registry_acceptsNewCommands_andRejectsUnknownOnes() throws Exception {
+        Storage storage = new Storage(tmp.resolve("duke.txt").toString());
+        TaskList tasks = new TaskList();
+        ParserHappyPathTest.TestUi ui = new ParserHappyPathTest.TestUi();
+        CommandRegistry registry = Parser.defaultRegistry()
+                .register("count", line -> (list, s) -> CommandResult.message(list.size() + " task(s)"));
+        Dispatcher dispatcher = new Dispatcher(registry);
+
+        dispatcher.dispatch(CommandLine.parse("todo a"), tasks, ui, storage);
+        dispatcher.dispatch(CommandLine.parse("count"), tasks, ui, storage);
+        assertEquals("1 task(s)", ui.last);
+
+        AtlasException ex = assertThrows(AtlasException.class,
+                () -> dispatcher.dispatch(CommandLine.parse("abracadabra now"), tasks, ui, storage));
+        assertEquals("I don't recognise that command: 'abracadabra'.", ex.getMessage());
+        assertFalse(new CommandRegistry().isRegistered("todo"));
+    }
+
+    @Test
+    void metrics_countCommandsAndFailures_perCommandWord() throws Exception {
+        Storage storage = new Storage(tmp.resolve("duke.txt").toString());
+        Metrics metrics = new Metrics(true);
+        storage.setMetrics(metrics);
+        TaskList tasks = new TaskList();
+        ParserHappyPathTest.TestUi ui = new ParserHappyPathTest.TestUi();
+        Dispatcher dispatcher = new Dispatcher(Parser.defaultRegistry()
+                .register("stats", line -> new Commands.ShowStats(metrics)), metrics);
+
+        dispatcher.dispatch(CommandLine.parse("todo a"), tasks, ui, storage);
+        dispatcher.dispatch(CommandLine.parse("todo b"), tasks, ui, storage);
+        assertThrows(AtlasException.class, () -> dispatcher.dispatch(CommandLine.parse("mark 9"), tasks, ui, storage));
+        assertThrows(AtlasException.class, () -> dispatcher.dispatch(CommandLine.parse("oops"), tasks, ui, storage));
+        dispatcher.dispatch(CommandLine.parse("stats"), tasks, ui, storage);
+
+        String stats = ui.last;
+        assertTrue(stats.contains("todo: 2 run, 0 failed"), stats);
+        assertTrue(stats.contains("mark: 1 run, 1 failed"), stats);
+        assertTrue(stats.contains("(unknown): 1 run, 1 failed"), stats);
+        assertTrue(stats.contains("persist"), stats);
+        assertTrue(stats.contains("Saves: 2, "), stats);
+
+        // Switched off, nothing is recorded and the clock is never read.
+        assertEquals(0, Metrics.DISABLED.now());
+        assertTrue(new Commands.ShowStats(Metrics.DISABLED).execute(tasks, storage).message()
+                .startsWith("Stats are switched off."));
+    }
+}
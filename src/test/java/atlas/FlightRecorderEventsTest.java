@@ -0,0 +1,66 @@
+package atlas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FlightRecorderEventsTest {
+
+    @TempDir Path tmp;
+
+    @Test
+    void commandsAndSaves_emitEvents_withTypeTaskCountBytesAndOutcome() throws Exception {
+        Path dump = tmp.resolve("atlas.jfr");
+        Storage storage = new Storage(tmp.resolve("duke.txt").toString());
+        TaskList tasks = new TaskList();
+        ParserHappyPathTest.TestUi ui = new ParserHappyPathTest.TestUi();
+        Dispatcher dispatcher = new Dispatcher(Parser.defaultRegistry());
+
+        try (Recording recording = new Recording()) {
+            recording.enable(CommandEvent.class);
+            recording.enable(StorageEvent.class);
+            recording.start();
+            dispatcher.dispatch(CommandLine.parse("todo read book"), tasks, ui, storage);
+            assertThrows(AtlasException.class,
+                    () -> dispatcher.dispatch(CommandLine.parse("mark 5"), tasks, ui, storage));
+            storage.load();
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        List<RecordedEvent> commands = named(events, "atlas.Command");
+        assertEquals(2, commands.size());
+        assertEquals("todo", commands.get(0).getString("command"));
+        assertEquals(1, commands.get(0).getInt("taskCount"));
+        assertEquals("ok", commands.get(0).getString("outcome"));
+        assertEquals("mark", commands.get(1).getString("command"));
+        assertEquals("failed", commands.get(1).getString("outcome"));
+
+        List<RecordedEvent> storageEvents = named(events, "atlas.Storage");
+        assertEquals(2, storageEvents.size());
+        RecordedEvent save = storageEvents.get(0);
+        assertEquals("save", save.getString("operation"));
+        assertEquals(1, save.getInt("taskCount"));
+        assertTrue(save.getLong("bytes") > 0);
+        RecordedEvent load = storageEvents.get(1);
+        assertEquals("load", load.getString("operation"));
+        assertEquals(save.getLong("bytes"), load.getLong("bytes"));
+        assertEquals("ok", load.getString("outcome"));
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+    }
+}
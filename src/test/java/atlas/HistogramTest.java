@@ -0,0 +1,39 @@
+package atlas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+public class HistogramTest {
+
+    @Test
+    void percentiles_areWithinBucketPrecision() {
+        Histogram h = new Histogram();
+        for (long v = 1; v <= 100_000; v++) {
+            h.record(v);
+        }
+        assertEquals(100_000, h.count());
+        assertEquals(100_000, h.max());
+        assertEquals(100_000L * 100_001 / 2, h.sum());
+        assertEquals(50_000, h.valueAt(0.50), 50_000 / 8.0);
+        assertEquals(99_000, h.valueAt(0.99), 99_000 / 8.0);
+        assertEquals(100_000, h.valueAt(1.0));
+        // Never reports less than the true percentile.
+        assertTrue(h.valueAt(0.50) >= 50_000);
+    }
+
+    @Test
+    void buckets_coverEveryValueWithoutGaps() {
+        assertEquals(0, Histogram.bucketOf(0));
+        assertEquals(7, Histogram.bucketOf(7));
+        long previousTop = -1;
+        for (int b = 0; b <= Histogram.bucketOf(Long.MAX_VALUE); b++) {
+            long top = Histogram.highestValueIn(b);
+            assertEquals(b, Histogram.bucketOf(previousTop + 1));
+            assertEquals(b, Histogram.bucketOf(top));
+            previousTop = top;
+        }
+        assertEquals(Long.MAX_VALUE, previousTop);
+        assertEquals(0, new Histogram().valueAt(0.99));
+    }
+}
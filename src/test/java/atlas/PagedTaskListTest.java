@@ -0,0 +1,149 @@
+package atlas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class PagedTaskListTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PagedTaskList open(List<Task> tasks, int cachePages) throws IOException {
+        Path savePath = tempDir.resolve("duke.bin");
+        Storage storage = new Storage(savePath.toString());
+        storage.setFormat(SaveFormat.BINARY);
+        storage.save(tasks);
+        return new PagedTaskList(BinaryFormat.Reader.open(savePath, false), cachePages);
+    }
+
+    @Test
+    void randomEdits_matchAnInMemoryList() throws IOException {
+        List<Task> expected = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            expected.add(new Todo("task " + i));
+        }
+        PagedTaskList paged = open(expected, 2);
+        Random random = new Random(11);
+
+        // Enough removals to switch the list over to memory part-way through.
+        for (int step = 0; step < 4000; step++) {
+            int op = random.nextInt(10);
+            if (op < 4 && !expected.isEmpty()) {
+                int idx = random.nextInt(expected.size());
+                assertEquals(expected.remove(idx).toSave(), paged.remove(idx).toSave());
+            } else if (op < 6 && !expected.isEmpty()) {
+                int idx = random.nextInt(expected.size());
+                paged.set(idx, paged.get(idx).withDone(true));
+                expected.set(idx, expected.get(idx).withDone(true));
+            } else if (op < 7) {
+                Todo t = new Todo("added " + step);
+                expected.add(t);
+                paged.add(t);
+            } else if (!expected.isEmpty()) {
+                int idx = random.nextInt(expected.size());
+                assertEquals(expected.get(idx).toSave(), paged.get(idx).toSave());
+            }
+            assertEquals(expected.size(), paged.size());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toSave(), paged.get(i).toSave());
+        }
+    }
+
+    @Test
+    void markedTask_survivesPageEviction() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < PagedTaskList.PAGE_SIZE * 4; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+        PagedTaskList paged = open(tasks, 1);
+        TaskList list = TaskList.backedBy(paged);
+
+        list.mark(5);
+        list.get(PagedTaskList.PAGE_SIZE * 3); // evicts the first page
+        assertTrue(list.get(5).isDone);
+
+        List<Task> copy = list.snapshot();
+        list.remove(0);
+        assertEquals(tasks.size(), copy.size());
+        assertTrue(copy.get(5).isDone);
+    }
+
+    @Test
+    void backedList_buildsIndexesOnFirstQuery() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Todo("read book"));
+        tasks.add(new Deadline("return book", "2025-10-15"));
+        tasks.add(new Todo("read book")); // duplicates survive a reload
+        TaskList list = TaskList.backedBy(open(tasks, 1));
+
+        list.remove(0);
+        assertTrue(list.contains(new Todo("read book")));
+        assertEquals(2, list.find("book").size());
+        list.remove(1);
+        assertFalse(list.contains(new Todo("read book")));
+        assertEquals(1, list.dueOn(java.time.LocalDate.of(2025, 10, 15)).size());
+    }
+
+    @Test
+    void bulkRemovals_matchAnInMemoryList() throws IOException {
+        List<Task> expected = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            expected.add(new Todo("task " + i));
+        }
+        PagedTaskList paged = open(expected, 2);
+        Random random = new Random(13);
+
+        // Enough removals to switch the list over to memory part-way through.
+        for (int step = 0; step < 200; step++) {
+            Todo added = new Todo("added " + step);
+            expected.add(added);
+            paged.add(added);
+            BitSet indexes = new BitSet();
+            for (int n = random.nextInt(16); n > 0; n--) {
+                indexes.set(random.nextInt(expected.size()));
+            }
+            TaskList.removeAll(expected, indexes);
+            TaskList.removeAll(paged, indexes);
+            assertEquals(expected.size(), paged.size());
+            int idx = random.nextInt(expected.size());
+            assertEquals(expected.get(idx).toSave(), paged.get(idx).toSave());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toSave(), paged.get(i).toSave());
+        }
+    }
+
+    @Test
+    void unreadableRecord_isShownButNeverSaved() throws IOException {
+        Path savePath = tempDir.resolve("duke.bin");
+        Storage storage = new Storage(savePath.toString());
+        storage.setFormat(SaveFormat.BINARY);
+        storage.save(List.of(new Todo("read book"), new Todo("return book")));
+        byte[] bytes = Files.readAllBytes(savePath);
+        bytes[BinaryFormat.HEADER_SIZE + 2] = 99; // type of the first record
+        Files.write(savePath, bytes);
+
+        TaskList list = TaskList.backedBy(storage.loadLazily(1));
+        assertEquals("T | 0 | (unreadable task)", list.get(0).toSave());
+        list.mark(0); // the marked copy is still a placeholder
+        IOException e = assertThrows(IOException.class, () -> storage.save(list.asList()));
+        assertEquals("Warning: couldn't save tasks to disk. Task 1 could not be read from the save file."
+                + " Delete it to save again.", Commands.saveFailedWarning(e));
+        assertArrayEquals(bytes, Files.readAllBytes(savePath));
+
+        list.remove(0);
+        storage.save(list.asList());
+        assertEquals(List.of(new Todo("return book")), new Storage(savePath.toString()).load());
+    }
+}
@@ -57,4 +57,11 @@ public class ParserErrorTest {
         assertTrue(ex.getMessage().toLowerCase().contains("don't recognise")
                 || ex.getMessage().toLowerCase().contains("recognise"));
     }
+
+    @Test
+    void due_invalidDate_throws() {
+        AtlasException ex = assertThrows(AtlasException.class,
+                () -> Parser.parse("due-between 2025-10-01 tomorrow", tasks, ui, storage));
+        assertTrue(ex.getMessage().toLowerCase().contains("invalid date"));
+    }
 }
@@ -16,6 +16,9 @@ public class ParserHappyPathTest {
         @Override public void show(String body) {
             last = body;
         }
+        @Override public void showTasks(TaskPage page) {
+            last = page.render();
+        }
         @Override public void showGreeting() {
             last = "GREETING";
         }
@@ -83,4 +86,104 @@ public class ParserHappyPathTest {
         List<String> lines = java.nio.file.Files.readAllLines(tmp.resolve("duke.txt"));
         assertTrue(lines.get(0).startsWith("T |"));
     }
+
+    @Test
+    void listAndFind_showTheRequestedPage() throws Exception {
+        Storage storage = new Storage(tmp.resolve("duke.txt").toString());
+        TaskList tasks = new TaskList();
+        TestUi ui = new TestUi();
+        for (int i = 1; i <= 5; i++) {
+            tasks.add(new Todo("read book " + i));
+        }
+        String nl = System.lineSeparator();
+
+        Parser.parse("list --page 2 --size 2", tasks, ui, storage);
+        assertEquals("Here are the tasks in your list:" + nl
+                + "3." + tasks.get(2) + nl
+                + "4." + tasks.get(3) + nl
+                + "(page 2 of 3, 5 tasks in total; use --page <n> to see another page)", ui.last);
+
+        Parser.parse("find book --size 4 --page 2", tasks, ui, storage);
+        assertEquals("Here are the matching tasks in your list:" + nl
+                + "5." + tasks.get(4) + nl
+                + "(page 2 of 2, 5 tasks in total; use --page <n> to see another page)", ui.last);
+
+        AtlasException ex = assertThrows(AtlasException.class,
+                () -> Parser.parse("list --page 4 --size 2", tasks, ui, storage));
+        assertEquals("Page 4 is out of range (1..3).", ex.getMessage());
+        assertThrows(AtlasException.class, () -> Parser.parse("list --page 0", tasks, ui, storage));
+
+        // without options, the whole list is shown and other words are ignored
+        Parser.parse("list everything", tasks, ui, storage);
+        assertEquals(tasks.formatList(), ui.last);
+    }
+
+    @Test
+    void batch_savesOnceOnCommit_andRollsBackOnError() throws Exception {
+        Path savePath = tmp.resolve("duke.txt");
+        Storage storage = new Storage(savePath.toString());
+        TaskList tasks = new TaskList();
+        TestUi ui = new TestUi();
+
+        Parser.parse("todo read book", tasks, ui, storage);
+        Parser.parse("begin", tasks, ui, storage);
+        Parser.parse("todo return book", tasks, ui, storage);
+        Parser.parse("mark 1", tasks, ui, storage);
+        assertEquals(List.of("T | 0 | read book"), java.nio.file.Files.readAllLines(savePath));
+
+        Parser.parse("commit", tasks, ui, storage);
+        assertEquals("Batch committed: 2 change(s) saved.", ui.last);
+        assertEquals(List.of("T | 1 | read book", "T | 0 | return book"),
+                java.nio.file.Files.readAllLines(savePath));
+
+        Parser.parse("begin", tasks, ui, storage);
+        Parser.parse("unmark 1", tasks, ui, storage);
+        // mistakes that change nothing keep the batch open
+        assertThrows(AtlasException.class, () -> Parser.parse("delet 2", tasks, ui, storage));
+        assertThrows(AtlasException.class, () -> Parser.parse("begin", tasks, ui, storage));
+        assertThrows(AtlasException.class, () -> Parser.parse("list --page 9", tasks, ui, storage));
+        assertTrue(storage.isBatching());
+        assertFalse(tasks.get(0).isDone);
+        Parser.parse("delete 2", tasks, ui, storage);
+        AtlasException ex = assertThrows(AtlasException.class,
+                () -> Parser.parse("mark 5", tasks, ui, storage));
+        assertTrue(ex.getMessage().startsWith("Task 5 is out of range"));
+        assertTrue(ex.getMessage().endsWith("none of its changes were kept."));
+        assertEquals(2, tasks.size());
+        assertTrue(tasks.get(0).isDone);
+        assertTrue(tasks.contains(new Todo("return book")));
+        assertEquals(List.of("T | 1 | read book", "T | 0 | return book"),
+                java.nio.file.Files.readAllLines(savePath));
+
+        assertThrows(AtlasException.class, () -> Parser.parse("commit", tasks, ui, storage));
+    }
+
+    @Test
+    void bulkCommands_changeManyTasksWithOneSave() throws Exception {
+        Path savePath = tmp.resolve("duke.txt");
+        Storage storage = new Storage(savePath.toString());
+        TaskList tasks = new TaskList();
+        TestUi ui = new TestUi();
+        for (int i = 1; i <= 10; i++) {
+            tasks.add(new Todo("task " + i));
+        }
+
+        Parser.parse("mark 1,4,6-8", tasks, ui, storage);
+        assertEquals("Nice! I've marked 5 task(s) as done.", ui.last);
+        Parser.parse("unmark 7-6", tasks, ui, storage); // reversed ranges are fine
+        assertEquals(3, tasks.doneTasks().cardinality());
+
+        Parser.parse("delete done", tasks, ui, storage);
+        assertEquals("Noted. I've removed 3 task(s).\nNow you have 7 tasks in the list.", ui.last);
+        Parser.parse("delete 2-3, 7", tasks, ui, storage);
+        assertEquals(List.of("T | 0 | task 2", "T | 0 | task 6", "T | 0 | task 7", "T | 0 | task 9"),
+                java.nio.file.Files.readAllLines(savePath));
+        assertTrue(tasks.find("task 5").isEmpty());
+
+        AtlasException ex = assertThrows(AtlasException.class,
+                () -> Parser.parse("delete 2-9", tasks, ui, storage));
+        assertEquals("Task 9 is out of range (1..4).", ex.getMessage());
+        assertThrows(AtlasException.class, () -> Parser.parse("mark 1,x", tasks, ui, storage));
+        assertEquals(4, tasks.size());
+    }
 }
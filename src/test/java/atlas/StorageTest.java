@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -64,4 +65,290 @@ public class StorageTest {
         assertEquals("D | 1 | return book | 2025-10-15", loaded.get(1).toSave());
         assertEquals("E | 0 | project meeting | Mon 2pm | 4pm", loaded.get(2).toSave());
     }
+
+    @Test
+    void journal_appendsRecords_andReplaysThemOnLoad() throws IOException {
+        Path savePath = tempDir.resolve("duke.txt");
+        Storage storage = new Storage(savePath.toString());
+        storage.enableJournal(0.5);
+
+        List<Task> list = new ArrayList<>();
+        list.add(new Todo("read book"));
+        storage.save(list);
+
+        list.add(new Deadline("return book", "2025-10-15"));
+        storage.record(Storage.addRecord(list.get(1)), list);
+        list.get(1).mark();
+        storage.record(Storage.markRecord(1), list);
+        list.remove(0);
+        storage.record(Storage.deleteRecord(0), list);
+
+        // Snapshot untouched, changes live in the journal
+        assertEquals(List.of("T | 0 | read book"), Files.readAllLines(savePath));
+        assertTrue(Files.exists(tempDir.resolve("duke.txt.journal")));
+
+        Storage reopened = new Storage(savePath.toString());
+        reopened.enableJournal(0.5);
+        List<Task> loaded = reopened.load();
+        assertEquals(1, loaded.size());
+        assertEquals("D | 1 | return book | 2025-10-15", loaded.get(0).toSave());
+    }
+
+    @Test
+    void journal_replaysBulkRecords() throws IOException {
+        Path savePath = tempDir.resolve("duke.txt");
+        Storage storage = new Storage(savePath.toString());
+        storage.enableJournal(1000);
+
+        List<Task> list = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            list.add(new Todo("task " + i));
+        }
+        storage.save(list);
+        java.util.BitSet marked = new java.util.BitSet();
+        marked.set(1, 4);
+        marked.set(6);
+        storage.record(Storage.markAllRecord(marked), list);
+        java.util.BitSet removed = new java.util.BitSet();
+        removed.set(0);
+        removed.set(2, 4);
+        storage.record(Storage.deleteAllRecord(removed), list);
+        assertTrue(Files.readString(tempDir.resolve("duke.txt.journal")).contains("x 1-3,6"));
+
+        Storage reloaded = new Storage(savePath.toString());
+        reloaded.enableJournal(1000);
+        List<String> saved = new ArrayList<>();
+        for (Task t : reloaded.load()) {
+            saved.add(t.toSave());
+        }
+        assertEquals(List.of("T | 1 | task 1", "T | 0 | task 4", "T | 0 | task 5", "T | 1 | task 6",
+                "T | 0 | task 7"), saved);
+    }
+
+    @Test
+    void journal_compactsIntoSnapshot_onceItOutgrowsRatio() throws IOException {
+        Path savePath = tempDir.resolve("duke.txt");
+        Storage storage = new Storage(savePath.toString());
+        storage.enableJournal(0.01); // ~650 bytes of journal before compaction
+
+        List<Task> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(new Todo("task " + i));
+            storage.record(Storage.addRecord(list.get(i)), list);
+        }
+
+        // Compaction happened at least once, so the snapshot holds a prefix of the list
+        List<String> snapshot = Files.readAllLines(savePath);
+        assertFalse(snapshot.isEmpty());
+        assertEquals("T | 0 | task 0", snapshot.get(0));
+
+        Storage reopened = new Storage(savePath.toString());
+        reopened.enableJournal(0.01);
+        List<Task> loaded = reopened.load();
+        assertEquals(100, loaded.size());
+        assertEquals("T | 0 | task 99", loaded.get(99).toSave());
+    }
+
+    @Test
+    void journal_staleAfterCompaction_isDiscarded() throws IOException {
+        Path savePath = tempDir.resolve("duke.txt");
+        Storage storage = new Storage(savePath.toString());
+        storage.enableJournal(0.5);
+
+        List<Task> list = new ArrayList<>();
+        list.add(new Todo("read book"));
+        storage.record(Storage.addRecord(list.get(0)), list);
+        Path journalPath = tempDir.resolve("duke.txt.journal");
+        byte[] journalBytes = Files.readAllBytes(journalPath);
+
+        // Simulate a crash after the snapshot was rewritten but before the journal was removed
+        storage.save(list);
+        Files.write(journalPath, journalBytes);
+
+        Storage reopened = new Storage(savePath.toString());
+        reopened.enableJournal(0.5);
+        assertEquals(1, reopened.load().size());
+        assertFalse(Files.exists(journalPath));
+    }
+
+    @Test
+    void journal_replaysOnTopOfBackup_whenSaveFileIsMissing() throws IOException {
+        Path savePath = tempDir.resolve("duke.txt");
+        Storage storage = new Storage(savePath.toString());
+        storage.enableJournal(1000);
+
+        List<Task> list = new ArrayList<>();
+        list.add(new Todo("read book"));
+        storage.save(list);
+        list.add(new Todo("return book"));
+        storage.record(Storage.addRecord(list.get(1)), list);
+
+        // The save file is lost, leaving its backup and the journal written on top of it
+        Files.move(savePath, tempDir.resolve("duke.txt.bak"), StandardCopyOption.REPLACE_EXISTING);
+
+        Storage reopened = new Storage(savePath.toString());
+        reopened.enableJournal(1000);
+        List<Task> loaded = reopened.load();
+        assertEquals(2, loaded.size());
+        assertEquals("T | 0 | return book", loaded.get(1).toSave());
+
+        // Later edits still land in a journal that the backup accepts
+        loaded.add(new Todo("call mum"));
+        reopened.record(Storage.addRecord(loaded.get(2)), loaded);
+        Storage again = new Storage(savePath.toString());
+        again.enableJournal(1000);
+        assertEquals(3, again.load().size());
+    }
+
+    @Test
+    void save_replacesAtomically_andKeepsPreviousSnapshotAsBackup() throws IOException {
+        Path savePath = tempDir.resolve("duke.txt");
+        Storage storage = new Storage(savePath.toString());
+        storage.setDurability(Durability.WRITE);
+
+        storage.save(List.of(new Todo("first")));
+        storage.save(List.of(new Todo("first"), new Todo("second")));
+
+        assertEquals(List.of("T | 0 | first", "T | 0 | second"), Files.readAllLines(savePath));
+        assertEquals(List.of("T | 0 | first"), Files.readAllLines(tempDir.resolve("duke.txt.bak")));
+        assertFalse(Files.exists(tempDir.resolve("duke.txt.tmp")), "Temp file should be renamed away");
+
+        // A lost save file falls back to the backup generation
+        Files.delete(savePath);
+        assertEquals(1, storage.load().size());
+    }
+
+    @Test
+    void load_countsUnreadableLines() throws IOException {
+        Path savePath = tempDir.resolve("duke.txt");
+        Files.write(savePath, List.of("T | 0 | read book", "D | 0 | half-written | 20", "", "garbage"));
+        Storage storage = new Storage(savePath.toString());
+
+        assertEquals(1, storage.load().size());
+        assertEquals(2, storage.getSkippedLineCount());
+    }
+
+    @Test
+    void binaryFormat_roundTrips_andConvertsBothWays() throws IOException {
+        Path savePath = tempDir.resolve("duke.bin");
+        Storage storage = new Storage(savePath.toString());
+        storage.setFormat(SaveFormat.BINARY);
+
+        List<Task> list = new ArrayList<>();
+        list.add(new Todo("read book"));
+        Deadline d = new Deadline("return book", "2025-10-15");
+        d.mark();
+        list.add(d);
+        list.add(new Event("project meeting", "Mon 2pm", "4pm"));
+        list.add(new Event("retro", "Mon 2pm", "4pm")); // shares strings with the meeting
+        storage.save(list);
+
+        byte[] head = java.util.Arrays.copyOf(Files.readAllBytes(savePath), 4);
+        assertEquals("ATLB", new String(head, java.nio.charset.StandardCharsets.US_ASCII));
+
+        List<Task> loaded = new Storage(savePath.toString()).load();
+        assertEquals(4, loaded.size());
+        assertEquals("D | 1 | return book | 2025-10-15", loaded.get(1).toSave());
+        assertEquals("E | 0 | retro | Mon 2pm | 4pm", loaded.get(3).toSave());
+
+        Path textPath = tempDir.resolve("duke.txt");
+        Storage.convert(savePath.toString(), textPath.toString(), SaveFormat.TEXT);
+        assertEquals("T | 0 | read book", Files.readAllLines(textPath).get(0));
+
+        Storage.convert(textPath.toString(), textPath.toString(), SaveFormat.BINARY);
+        List<Task> reloaded = new Storage(textPath.toString()).load();
+        assertEquals(4, reloaded.size());
+        assertEquals("E | 0 | project meeting | Mon 2pm | 4pm", reloaded.get(2).toSave());
+    }
+
+    @Test
+    void loadLazily_matchesFullLoad_includingJournal() throws IOException {
+        Path savePath = tempDir.resolve("duke.bin");
+        Storage storage = new Storage(savePath.toString());
+        storage.setFormat(SaveFormat.BINARY);
+        storage.enableJournal(1000); // keep every change in the journal
+
+        List<Task> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i % 2 == 0 ? new Todo("task " + i) : new Deadline("due " + i, "2025-10-15"));
+        }
+        storage.save(list);
+        storage.record(Storage.markRecord(700), list);
+        storage.record(Storage.deleteRecord(3), list);
+        storage.record(Storage.addRecord(new Todo("late addition")), list);
+
+        Storage lazyStorage = new Storage(savePath.toString());
+        lazyStorage.enableJournal(1000);
+        List<Task> lazy = lazyStorage.loadLazily(2);
+        assertTrue(lazy instanceof PagedTaskList);
+
+        Storage fullStorage = new Storage(savePath.toString());
+        fullStorage.enableJournal(1000);
+        List<Task> full = fullStorage.load();
+        assertEquals(full.size(), lazy.size());
+        for (int i = 0; i < full.size(); i++) {
+            assertEquals(full.get(i).toSave(), lazy.get(i).toSave());
+        }
+        assertEquals("T | 1 | task 700", lazy.get(699).toSave());
+    }
+
+    @Test
+    void loadLazily_doesNotHoldTheSaveFile() throws IOException {
+        Path savePath = tempDir.resolve("duke.bin");
+        Storage storage = new Storage(savePath.toString());
+        storage.setFormat(SaveFormat.BINARY);
+        List<Task> list = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            list.add(new Todo("task " + i));
+        }
+        storage.save(list);
+
+        List<Task> lazy = storage.loadLazily(1);
+        // Rewriting the save file in place must not show through the open list
+        Files.write(savePath, new byte[(int) Files.size(savePath)]);
+        storage.save(List.of(new Todo("other")));
+
+        assertEquals(600, lazy.size());
+        assertEquals("T | 0 | task 599", lazy.get(599).toSave());
+        try (var files = Files.list(tempDir)) {
+            assertTrue(files.noneMatch(f -> f.toString().endsWith(".paged")));
+        }
+    }
+
+    @Test
+    void loadLazily_textFile_loadsInFull() throws IOException {
+        Path savePath = tempDir.resolve("duke.txt");
+        Files.writeString(savePath, "T | 0 | read book\n");
+        List<Task> lazy = new Storage(savePath.toString()).loadLazily(4);
+        assertEquals(1, lazy.size());
+        assertEquals("T | 0 | read book", lazy.get(0).toSave());
+    }
+
+    @Test
+    void load_mappedTextMatchesLineByLineParsing() throws IOException {
+        Path savePath = tempDir.resolve("duke.txt");
+        String content = "T | 0 | caf\u00e9 \u00e0 la carte\r\n"  // CRLF and non-ASCII text
+                + "D|1|\treturn book\t|2025-10-15\r"             // bare CR, tabs around pipes
+                + "E | 0 | meeting | Mon 2pm | 4pm | extra\n"      // extra fields are ignored
+                + "  \n"                                           // blank: not counted
+                + " T | 0 | leading space\n"                       // unknown type " T"
+                + "T | 0 | |\n"                                    // trailing empty fields dropped
+                + "D | 0 | essay | 2025-02-30\n"                   // invalid date
+                + "T | 1 | no newline at end";
+        Files.write(savePath, content.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+
+        Storage storage = new Storage(savePath.toString());
+        List<Task> loaded = storage.load();
+
+        List<String> saved = new ArrayList<>();
+        for (Task t : loaded) {
+            saved.add(t.toSave());
+        }
+        assertEquals(List.of(
+                "T | 0 | caf\u00e9 \u00e0 la carte",
+                "D | 1 | return book | 2025-10-15",
+                "E | 0 | meeting | Mon 2pm | 4pm",
+                "T | 1 | no newline at end"), saved);
+        assertEquals(3, storage.getSkippedLineCount());
+    }
 }
@@ -2,10 +2,23 @@ package atlas;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class TaskListTest {
 
+    @TempDir Path tmp;
+
     @Test
     void add_mark_unmark_remove_and_formatList() {
         TaskList list = new TaskList();
@@ -38,4 +51,247 @@ public class TaskListTest {
         assertEquals(d, removed);
         assertEquals(2, list.size());
     }
+
+    @Test
+    void contains_tracksAddRemoveAndIgnoresCompletion() {
+        TaskList list = new TaskList(List.of(new Todo("read book"), new Todo("read book")));
+        assertTrue(list.contains(new Todo("read book")));
+        assertFalse(list.contains(new Deadline("read book", "2025-10-15")));
+
+        list.add(new Deadline("return book", "2025-10-15"));
+        list.mark(2);
+        assertTrue(list.contains(new Deadline("return book", "2025-10-15")));
+        assertFalse(list.contains(new Deadline("return book", "2025-10-16")));
+
+        // One of two loaded duplicates removed: the other still counts
+        list.remove(0);
+        assertTrue(list.contains(new Todo("read book")));
+        list.remove(0);
+        assertFalse(list.contains(new Todo("read book")));
+    }
+
+    @Test
+    void find_substringMatchesScanResults_afterAddsAndRemoves() {
+        TaskList list = new TaskList(List.of(new Todo("Read Book"), new Todo("buy notebook")));
+        list.add(new Deadline("return book", "2025-10-15"));
+        list.add(new Event("book club, chapter 2", "Mon 2pm", "4pm"));
+        list.add(new Todo("wash car"));
+        list.remove(1);
+
+        assertEquals(List.of(list.get(0), list.get(1), list.get(2)), list.find("BOOK"));
+        assertEquals(List.of(list.get(0), list.get(1), list.get(2)), list.find("oo"));
+        assertEquals(List.of(list.get(2)), list.find("club, ch")); // spans words: scan fallback
+        assertEquals(List.of(list.get(3)), list.find("car"));
+        assertTrue(list.find("notebook").isEmpty());
+    }
+
+    @Test
+    void find_matchesAScan_forShortAndLongKeywords() {
+        String[] words = {"a", "ab", "book", "notebook", "cookbook", "bookkeeper", "aaaa", "x9", "100", "2100"};
+        java.util.Random random = new java.util.Random(5);
+        List<Task> expected = new ArrayList<>();
+        TaskList list = new TaskList();
+        for (int step = 0; step < 400; step++) {
+            if (random.nextInt(3) == 0 && !expected.isEmpty()) {
+                int idx = random.nextInt(expected.size());
+                expected.remove(idx);
+                list.remove(idx);
+            } else {
+                Todo t = new Todo(words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)]
+                        + " " + step);
+                expected.add(t);
+                list.add(t);
+            }
+        }
+
+        for (String keyword : List.of("a", "o", "oo", "ab", "aaa", "book", "okk", "note", "00", "210", "x9", "zz")) {
+            List<Task> scanned = new ArrayList<>();
+            for (Task t : expected) {
+                if (t.description.toLowerCase().contains(keyword)) {
+                    scanned.add(t);
+                }
+            }
+            assertEquals(scanned, list.find(keyword), keyword);
+        }
+    }
+
+    @Test
+    void findAll_and_findAny_matchWholeWords() {
+        TaskList list = new TaskList();
+        list.add(new Todo("read book"));
+        list.add(new Todo("return library book"));
+        list.add(new Todo("read news"));
+        list.add(new Todo("bookmark page"));
+
+        assertEquals(List.of(list.get(0)), list.findAll("Book read"));
+        assertEquals(List.of(list.get(0), list.get(1), list.get(2)), list.findAny("book, READ"));
+        assertTrue(list.findAll("book missing").isEmpty());
+
+        list.remove(0);
+        assertTrue(list.findAll("read book").isEmpty());
+        assertEquals(List.of(list.get(0), list.get(1)), list.findAny("library news"));
+    }
+
+    @Test
+    void dueQueries_useDateOrder_andFollowRemovals() {
+        TaskList list = new TaskList();
+        Deadline report = new Deadline("report", "2025-10-20");
+        Deadline essay = new Deadline("essay", "2025-10-15");
+        Deadline quiz = new Deadline("quiz", "2025-10-15");
+        list.add(report);
+        list.add(new Todo("read book"));
+        list.add(essay);
+        list.add(quiz);
+
+        assertEquals(List.of(essay, quiz), list.dueOn(LocalDate.of(2025, 10, 15)));
+        assertEquals(List.of(essay, quiz, report),
+                list.dueBetween(LocalDate.of(2025, 10, 1), LocalDate.of(2025, 10, 31)));
+        assertTrue(list.dueBetween(LocalDate.of(2025, 10, 16), LocalDate.of(2025, 10, 19)).isEmpty());
+
+        list.mark(2); // essay done
+        assertEquals(List.of(quiz, report), list.overdue(LocalDate.of(2025, 10, 21)));
+        assertEquals(List.of(quiz), list.overdue(LocalDate.of(2025, 10, 20)));
+
+        list.remove(3); // quiz
+        assertEquals(List.of(essay), list.dueOn(LocalDate.of(2025, 10, 15)));
+    }
+
+    @Test
+    void eventIndex_findsClashesAndEventsOnADay() {
+        TaskList list = new TaskList();
+        Event standup = new Event("standup", "2025-10-15 09:30", "10:00");
+        Event camp = new Event("camp", "2025-10-14", "2025-10-15");
+        Event dinner = new Event("dinner", "2025-10-15 19:00", "21:00");
+        list.add(standup);
+        list.add(new Event("project meeting", "Mon 2pm", "4pm"));
+        list.add(camp);
+        list.add(dinner);
+
+        assertEquals(List.of(camp, standup, dinner), list.eventsOn(LocalDate.of(2025, 10, 15)));
+        assertEquals(List.of(camp), list.eventsOn(LocalDate.of(2025, 10, 14)));
+
+        Event review = new Event("review", "2025-10-15 09:00", "2025-10-15 09:45");
+        assertEquals(List.of(camp, standup), list.clashesWith(review));
+        assertTrue(list.clashesWith(new Event("late", "2025-10-16 21:00", "22:00")).isEmpty());
+
+        list.remove(2); // camp
+        assertEquals(List.of(standup), list.clashesWith(review));
+    }
+
+    @Test
+    void indexesBuiltAtDifferentTimes_agreeWithTheList() {
+        TaskList list = new TaskList();
+        list.add(new Todo("read book"));
+        list.add(new Deadline("return book", "2025-10-15"));
+        assertFalse(list.addIfAbsent(new Todo("read book"))); // only the duplicate index so far
+
+        list.add(new Deadline("essay", "2025-10-15"));
+        list.remove(0);
+        assertEquals(List.of(list.get(0), list.get(1)), list.dueOn(LocalDate.of(2025, 10, 15)));
+        list.remove(1);
+        assertEquals(List.of(list.get(0)), list.find("book"));
+        assertTrue(list.addIfAbsent(new Todo("read book")));
+        assertEquals(List.of(list.get(0), list.get(1)), list.find("book"));
+        assertEquals(List.of(list.get(0)), list.dueOn(LocalDate.of(2025, 10, 15)));
+    }
+
+    @Test
+    void rollbackBatch_restoresTasksFlagsAndIndexes() {
+        TaskList list = new TaskList();
+        list.add(new Todo("read book"));
+        list.add(new Deadline("return book", "2025-10-15"));
+        list.mark(0);
+        assertEquals(2, list.find("book").size()); // indexes built before the batch
+
+        list.beginBatch();
+        list.unmark(0);
+        list.remove(1);
+        list.add(new Todo("write essay"));
+        list.mark(1);
+        list.rollbackBatch();
+
+        assertFalse(list.isBatching());
+        assertEquals(2, list.size());
+        assertTrue(list.get(0).isDone);
+        assertEquals(2, list.find("book").size());
+        assertTrue(list.find("essay").isEmpty());
+        assertEquals(1, list.dueOn(LocalDate.of(2025, 10, 15)).size());
+        assertFalse(list.contains(new Todo("write essay")));
+    }
+
+    @Test
+    void concurrentWritersAndReaders_seeConsistentLists() throws Exception {
+        TaskList list = new TaskList();
+        Storage storage = new Storage(tmp.resolve("duke.txt").toString());
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        AtomicBoolean isWriting = new AtomicBoolean(true);
+        AtomicInteger removed = new AtomicInteger();
+        int writers = 3;
+        int addsPerWriter = 3000;
+        int floor = 10; // tasks below this position are never removed
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < writers; w++) {
+            int id = w;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < addsPerWriter; i++) {
+                    assertTrue(list.addIfAbsent(new Todo("common task " + id + "-" + i)));
+                    // The list never shrinks below the floor, or below its size before reaching it.
+                    list.mark(i % Math.min(floor, list.size()));
+                }
+            }));
+        }
+        // The only thread that removes, so an index it reads stays in range.
+        threads.add(new Thread(() -> {
+            while (isWriting.get()) {
+                int size = list.size();
+                if (size > floor) {
+                    list.remove(floor + (size - floor) / 2);
+                    removed.incrementAndGet();
+                }
+                Thread.yield();
+            }
+        }));
+        threads.add(new Thread(() -> {
+            while (isWriting.get()) {
+                for (Task t : list.find("common")) {
+                    assertTrue(t.description.contains("common"));
+                }
+                String[] lines = list.formatList().split(System.lineSeparator());
+                for (int i = 1; i < lines.length; i++) {
+                    assertTrue(lines[i].startsWith(i + "."), "numbering broke at " + lines[i]);
+                }
+            }
+        }));
+        threads.add(new Thread(() -> {
+            try {
+                while (isWriting.get()) {
+                    storage.save(list.asList());
+                    List<Task> saved = new Storage(tmp.resolve("duke.txt").toString()).load();
+                    assertEquals(Files.readAllLines(tmp.resolve("duke.txt")).size(), saved.size());
+                }
+            } catch (Exception e) {
+                errors.add(e);
+            }
+        }));
+        for (Thread t : threads) {
+            t.setUncaughtExceptionHandler((thread, e) -> errors.add(e));
+            t.start();
+        }
+        for (int w = 0; w < writers; w++) {
+            threads.get(w).join();
+        }
+        isWriting.set(false);
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertTrue(errors.isEmpty(), "failures: " + errors);
+        assertEquals(writers * addsPerWriter - removed.get(), list.size());
+        assertEquals(list.size(), list.find("common").size());
+        List<Task> snapshot = list.snapshot();
+        for (Task t : snapshot) {
+            assertTrue(list.contains(t));
+        }
+    }
 }
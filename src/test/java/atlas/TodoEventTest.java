@@ -1,6 +1,10 @@
 package atlas;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
 
 import org.junit.jupiter.api.Test;
 
@@ -27,4 +31,34 @@ public class TodoEventTest {
         assertEquals("[E][X] project meeting (from: Mon 2pm to: 4pm)", e.toString());
         assertEquals("E | 1 | project meeting | Mon 2pm | 4pm", e.toSave());
     }
+
+    @Test
+    void event_parsesDateTimeWindow_butKeepsFreeText() {
+        Event timed = new Event("standup", "2025-10-15 09:30", "10:00");
+        assertTrue(timed.hasWindow());
+        assertEquals(LocalDateTime.of(2025, 10, 15, 9, 30), timed.getStart());
+        assertEquals(LocalDateTime.of(2025, 10, 15, 10, 0), timed.getEnd());
+        assertEquals("E | 0 | standup | 2025-10-15 09:30 | 10:00", timed.toSave());
+
+        Event allDay = new Event("camp", "2025-10-15", "2025-10-16");
+        assertEquals(LocalDateTime.of(2025, 10, 17, 0, 0), allDay.getEnd());
+
+        assertFalse(new Event("project meeting", "Mon 2pm", "4pm").hasWindow());
+        assertFalse(new Event("backwards", "2025-10-15 10:00", "09:00").hasWindow());
+    }
+
+    @Test
+    void event_parsesEachSupportedFormat() {
+        LocalDateTime nineThirty = LocalDateTime.of(2025, 10, 15, 9, 30);
+        assertEquals(nineThirty, new Event("iso", "2025-10-15T09:30", "2025-10-15T10:00").getStart());
+        assertEquals(nineThirty, new Event("compact", "2025-10-15 0930", "1000").getStart());
+        assertEquals(LocalDateTime.of(2025, 10, 15, 10, 0),
+                new Event("compact end", "2025-10-15 09:30", "1000").getEnd());
+        assertEquals(LocalDateTime.of(2025, 10, 15, 11, 0),
+                new Event("dated end", "2025-10-15 09:30", "2025-10-15 11:00").getEnd());
+
+        assertFalse(new Event("seconds", "2025-10-15 09:30:00", "10:00").hasWindow());
+        assertFalse(new Event("bad month", "2025-13-15", "2025-13-16").hasWindow());
+        assertFalse(new Event("slashes", "2025/10/15 09:30", "10:00").hasWindow());
+    }
 }
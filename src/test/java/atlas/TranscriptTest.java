@@ -0,0 +1,62 @@
+package atlas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TranscriptTest {
+
+    @TempDir Path tmp;
+
+    @Test
+    void longSession_staysBounded_andSpillsOldMessagesInOrder() throws Exception {
+        Path history = tmp.resolve("history.txt");
+        List<Transcript.Entry> shown = new ArrayList<>();
+        Transcript transcript = new Transcript(shown, 100, history);
+
+        for (int i = 0; i < 10_000; i++) {
+            Transcript.Entry command = Transcript.Entry.user("todo " + i);
+            transcript.add(command);
+            transcript.addAfter(command, Transcript.Entry.reply("added " + i, "AddCommand"));
+            assertTrue(shown.size() <= 100);
+        }
+
+        assertEquals("added 9999", shown.get(shown.size() - 1).text);
+        List<String> spilled = Files.readAllLines(history);
+        assertEquals(20_000 - shown.size(), spilled.size());
+        assertEquals("> todo 0", spilled.get(0));
+        assertEquals("added 0", spilled.get(1));
+        // Nothing is lost or repeated between the file and the list.
+        String firstShown = shown.get(0).text;
+        int next = spilled.size() / 2;
+        assertEquals("todo " + next, firstShown);
+    }
+
+    @Test
+    void replies_followTheirCommand_evenWhenOthersWereTypedAhead() {
+        List<Transcript.Entry> shown = new ArrayList<>();
+        Transcript transcript = new Transcript(shown, 10, null);
+        Transcript.Entry first = Transcript.Entry.user("list");
+        Transcript.Entry second = Transcript.Entry.user("find book");
+        transcript.add(first);
+        transcript.add(second);
+
+        transcript.addAfter(first, Transcript.Entry.reply("1.[T][ ] read book", null));
+        transcript.addAfter(second, Transcript.Entry.reply("(no matching tasks)", null));
+
+        assertEquals(List.of("list", "1.[T][ ] read book", "find book", "(no matching tasks)"),
+                shown.stream().map(e -> e.text).toList());
+
+        // The command has already been let go, so its reply goes at the end.
+        Transcript.Entry gone = Transcript.Entry.user("bye");
+        transcript.addAfter(gone, Transcript.Entry.reply("Bye.", null));
+        assertEquals("Bye.", shown.get(shown.size() - 1).text);
+        assertFalse(shown.get(shown.size() - 1).isUser);
+    }
+}
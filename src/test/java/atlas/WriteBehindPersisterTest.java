@@ -0,0 +1,111 @@
+package atlas;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WriteBehindPersisterTest {
+
+    // Storage double that counts how many physical writes happen
+    static class CountingStorage extends Storage {
+        int writes;
+
+        CountingStorage(String path) {
+            super(path);
+        }
+
+        @Override
+        synchronized void writeAll(List<String> records, List<Task> tasks) throws IOException {
+            writes++;
+            super.writeAll(records, tasks);
+        }
+    }
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void burstOfMutations_isCoalescedIntoFewWrites() throws IOException {
+        Path savePath = tempDir.resolve("duke.txt");
+        CountingStorage storage = new CountingStorage(savePath.toString());
+        List<Task> tasks = new ArrayList<>();
+        storage.startWriteBehind(tasks, 200, 64); // small queue also exercises backpressure
+
+        for (int i = 0; i < 500; i++) {
+            Todo t = new Todo("task " + i);
+            tasks.add(t);
+            storage.record(Storage.addRecord(t), tasks);
+        }
+        tasks.get(3).mark();
+        storage.record(Storage.markRecord(3), tasks);
+        tasks.remove(0);
+        storage.record(Storage.deleteRecord(0), tasks);
+        storage.close();
+
+        assertTrue(storage.writes < 500, "Expected bursts to be coalesced, got " + storage.writes + " writes");
+        List<String> lines = Files.readAllLines(savePath);
+        assertEquals(499, lines.size());
+        assertEquals("T | 0 | task 1", lines.get(0));
+        assertEquals("T | 1 | task 3", lines.get(2));
+    }
+
+    @Test
+    void failedBackgroundWrite_isReportedOnFlush() throws IOException {
+        Path blocker = tempDir.resolve("not-a-dir");
+        Files.writeString(blocker, "");
+        Storage storage = new Storage(blocker.resolve("duke.txt").toString());
+        List<Task> tasks = new ArrayList<>();
+        storage.startWriteBehind(tasks, 0, 8);
+
+        tasks.add(new Todo("read book"));
+        storage.record(Storage.addRecord(tasks.get(0)), tasks);
+
+        assertThrows(IOException.class, storage::flush);
+        // The task is still unsaved, so closing retries and reports it again
+        assertThrows(IOException.class, storage::close);
+    }
+
+    @Test
+    void failedBackgroundWrite_isRetried_withoutLosingRecords() throws IOException {
+        Path savePath = tempDir.resolve("duke.txt");
+        CountingStorage storage = new CountingStorage(savePath.toString()) {
+            @Override
+            synchronized void writeAll(List<String> records, List<Task> tasks) throws IOException {
+                if (++writes == 1) {
+                    throw new IOException("disk full");
+                }
+                super.writeAll(records, tasks);
+            }
+        };
+        storage.enableJournal(1000);
+        List<Task> tasks = new ArrayList<>();
+        storage.startWriteBehind(tasks, 0, 8);
+
+        tasks.add(new Todo("read book"));
+        tasks.add(new Todo("return book"));
+        storage.recordAll(List.of(Storage.addRecord(tasks.get(0)), Storage.addRecord(tasks.get(1))), tasks);
+        assertThrows(IOException.class, storage::flush);
+
+        // Indexes in later records refer to the tasks whose write failed
+        tasks.add(new Todo("call mum"));
+        storage.record(Storage.addRecord(tasks.get(2)), tasks);
+        tasks.remove(0);
+        storage.record(Storage.deleteRecord(0), tasks);
+        storage.close();
+
+        Storage reloaded = new Storage(savePath.toString());
+        reloaded.enableJournal(1000);
+        List<String> saved = new ArrayList<>();
+        for (Task t : reloaded.load()) {
+            saved.add(t.toSave());
+        }
+        assertEquals(List.of("T | 0 | return book", "T | 0 | call mum"), saved);
+    }
+}
@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+
+# Generates a synthetic workload and replays it headlessly, printing
+# ops/sec and p50/p99/p999 latency per command type.
+#
+# usage: ./runload.sh [ops] [tasks] [extra generator options...]
+#   e.g. ./runload.sh 50000 10000 --mix todo=10,find=60,list=30
+# Save settings are read from JAVA_OPTS, e.g. JAVA_OPTS="-Datlas.journal=true".
+
+# ---------- config ----------
+OPS="${1:-10000}"
+TASKS="${2:-1000}"
+shift $(( $# < 2 ? $# : 2 ))
+WORKLOAD="WORKLOAD.TXT"
+BIN="../bin"
+SRC="../src/main/java"
+TOOLS="../src/jmh/java/atlas/WorkloadGenerator.java ../src/jmh/java/atlas/WorkloadReplay.java"
+
+# ---------- setup ----------
+[ -d "$BIN" ] || mkdir "$BIN"
+rm -f "$WORKLOAD"
+
+# ---------- compile ----------
+if ! javac -Xlint:none -d "$BIN" "$SRC"/atlas/*.java $TOOLS;
+then
+  echo "********** BUILD FAILURE **********"
+  exit 1
+fi
+
+# ---------- generate + replay ----------
+java -classpath "$BIN" atlas.WorkloadGenerator --out "$WORKLOAD" --ops "$OPS" --tasks "$TASKS" "$@" || exit 1
+# the setup batch is "begin", TASKS adds and "commit"
+java $JAVA_OPTS -classpath "$BIN" atlas.WorkloadReplay --in "$WORKLOAD" --warmup $((TASKS + 2))